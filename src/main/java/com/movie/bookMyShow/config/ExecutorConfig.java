@@ -0,0 +1,66 @@
+package com.movie.bookMyShow.config;
+
+import com.movie.bookMyShow.util.MonitoredExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Executors for the payment pipeline. Every async hop names one of these explicitly instead of
+ * using the common ForkJoinPool, which the gateways' blocking calls would otherwise starve.
+ * Virtual threads are used when the JDK supports them, otherwise a bounded pool per concern.
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${executor.virtual-threads.enabled:true}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${executor.payment.threads:32}")
+    private int paymentThreads;
+
+    @Value("${executor.upi.threads:64}")
+    private int upiThreads;
+
+    @Value("${executor.eth.threads:64}")
+    private int ethThreads;
+
+    @Value("${executor.sim.threads:32}")
+    private int simThreads;
+
+    // Booking flow orchestration: processPaymentAsync, retries and reversals
+    @Bean(destroyMethod = "shutdown")
+    public MonitoredExecutor paymentExecutor() {
+        return create("payment", paymentThreads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public MonitoredExecutor upiGatewayExecutor() {
+        return create("upi-gateway", upiThreads);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public MonitoredExecutor ethGatewayExecutor() {
+        return create("eth-gateway", ethThreads);
+    }
+
+    // Simulator callbacks and its synchronous status/revert calls; SIMPaymentGateway is off unless payment.simulator.enabled
+    @Bean(destroyMethod = "shutdown")
+    public MonitoredExecutor simGatewayExecutor() {
+        return create("sim-gateway", simThreads);
+    }
+
+    private MonitoredExecutor create(String name, int threads) {
+        if (virtualThreadsEnabled && MonitoredExecutor.virtualThreadsSupported()) {
+            log.info("Executor {} uses virtual threads", name);
+            return MonitoredExecutor.virtual(name);
+        }
+        log.info("Executor {} uses {} platform threads, queue capacity {}", name, threads, queueCapacity);
+        return MonitoredExecutor.bounded(name, threads, queueCapacity);
+    }
+}
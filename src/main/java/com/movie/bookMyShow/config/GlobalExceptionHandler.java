@@ -3,9 +3,14 @@ package com.movie.bookMyShow.config;
 import com.movie.bookMyShow.dto.ApiResponse;
 import com.movie.bookMyShow.exception.CityAlreadyExistsException;
 import com.movie.bookMyShow.exception.CityNotFoundException;
+import com.movie.bookMyShow.exception.IdempotencyConflictException;
+import com.movie.bookMyShow.exception.InvalidCredentialsException;
+import com.movie.bookMyShow.exception.PaymentGatewayUnavailableException;
 import com.movie.bookMyShow.exception.ResourceNotFoundException;
 import com.movie.bookMyShow.exception.SeatAlreadyBookedException;
 import com.movie.bookMyShow.exception.SeatAlreadyHeldException;
+import com.movie.bookMyShow.exception.ShowOverlapException;
+import com.movie.bookMyShow.exception.TooManyRequestsException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -48,6 +53,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new ApiResponse(HttpStatus.CONFLICT.value(), ex.getMessage()), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponse> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        return new ResponseEntity<>(new ApiResponse(HttpStatus.CONFLICT.value(), ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse> handleTooManyRequests(TooManyRequestsException ex) {
+        return new ResponseEntity<>(new ApiResponse(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage()), HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<ApiResponse> handleInvalidCredentials(InvalidCredentialsException ex) {
+        return new ResponseEntity<>(new ApiResponse(HttpStatus.UNAUTHORIZED.value(), ex.getMessage()), HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(ShowOverlapException.class)
+    public ResponseEntity<ApiResponse> handleShowOverlap(ShowOverlapException ex) {
+        return new ResponseEntity<>(new ApiResponse(HttpStatus.CONFLICT.value(), ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PaymentGatewayUnavailableException.class)
+    public ResponseEntity<ApiResponse> handleGatewayUnavailable(PaymentGatewayUnavailableException ex) {
+        return new ResponseEntity<>(new ApiResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiResponse> handleIllegalArgument(IllegalArgumentException ex) {
         return new ResponseEntity<>(new ApiResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()), HttpStatus.BAD_REQUEST);
@@ -10,8 +10,13 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,11 +31,23 @@ public class KafkaConsumer {
     @Value("${spring.kafka.consumer.book-movie-group-id}")
     private String bookMovieGroupId;
 
+    @Value("${kafka.book-movie.consumer.max-poll-records:100}")
+    private int maxPollRecords;
+
+    // Redeliveries of a failed batch (after the channel's own retries) before the failing ticket moves to book_movie.DLT
+    @Value("${kafka.book-movie.consumer.redeliveries:2}")
+    private long redeliveries;
+
+    @Value("${kafka.book-movie.consumer.redelivery-backoff-ms:5000}")
+    private long redeliveryBackoffMs;
+
     @Bean
     public ConsumerFactory<String, TicketDTO> bookMovieDtoConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, bookMovieGroupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
 
@@ -45,10 +62,17 @@ public class KafkaConsumer {
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TicketDTO>
-    bookMovieKafkaListenerContainerFactory() {
+    bookMovieKafkaListenerContainerFactory(KafkaTemplate<String, TicketDTO> kafkaTemplate) {
         ConcurrentKafkaListenerContainerFactory<String, TicketDTO> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(bookMovieDtoConsumerFactory());
+        factory.setBatchListener(true);
+        // Offsets are committed once the listener has returned, i.e. after the whole batch was dispatched
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // A ticket that keeps failing is parked on <topic>.DLT (same partition) before its offset is committed;
+        // if that publish fails too the record is redelivered, so no ticket is dropped
+        DeadLetterPublishingRecoverer deadLetters = new DeadLetterPublishingRecoverer(kafkaTemplate);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetters, new FixedBackOff(redeliveryBackoffMs, redeliveries)));
         return factory;
     }
 }
@@ -22,6 +22,23 @@ public class KafkaProducer {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Batching and compression for the outbox relay, which sends a few hundred tickets at a time
+    @Value("${spring.kafka.producer.properties.linger.ms:10}")
+    private int lingerMs;
+
+    @Value("${spring.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${spring.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    // Idempotence keeps relay retries from duplicating or reordering a partition; it requires acks=all
+    @Value("${spring.kafka.producer.properties.enable.idempotence:true}")
+    private boolean idempotence;
+
+    @Value("${spring.kafka.producer.acks:all}")
+    private String acks;
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -37,6 +54,12 @@ public class KafkaProducer {
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.TYPE_MAPPINGS, "ticket:com.movie.bookMyShow.dto.TicketDTO");
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        configProps.put(ProducerConfig.ACKS_CONFIG, acks);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5); // Highest value idempotence still orders
         return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new JsonSerializer<>(objectMapper()));
     }
 
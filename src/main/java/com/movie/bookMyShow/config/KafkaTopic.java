@@ -1,6 +1,8 @@
 package com.movie.bookMyShow.config;
 
+import com.movie.bookMyShow.service.OutboxService;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,13 +10,28 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaTopic {
 
+    // Messages are keyed by holdId, so each booking stays ordered while consumers scale up to this many.
+    // KafkaAdmin adds partitions to an existing topic on startup when this is raised (it never removes them).
+    @Value("${kafka.book-movie.partitions:12}")
+    private int bookMoviePartitions;
+
+    @Value("${kafka.book-movie.replicas:1}")
+    private int bookMovieReplicas;
+
     @Bean
     public NewTopic bookMovieTopic() {
-        return TopicBuilder.name("book_movie")
-                .partitions(1)
-                .replicas(1)
+        return TopicBuilder.name(OutboxService.BOOK_MOVIE_TOPIC)
+                .partitions(bookMoviePartitions)
+                .replicas(bookMovieReplicas)
                 .build();
     }
-}
-
 
+    // Tickets the consumer gave up on; as many partitions as book_movie, since a dead letter keeps its partition
+    @Bean
+    public NewTopic bookMovieDeadLetterTopic() {
+        return TopicBuilder.name(OutboxService.BOOK_MOVIE_TOPIC + ".DLT")
+                .partitions(bookMoviePartitions)
+                .replicas(bookMovieReplicas)
+                .build();
+    }
+}
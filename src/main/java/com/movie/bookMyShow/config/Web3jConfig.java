@@ -0,0 +1,24 @@
+package com.movie.bookMyShow.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+@Slf4j
+@Configuration
+public class Web3jConfig {
+
+    @Value("${ethereum.node.url}")
+    private String ethereumNodeUrl;
+
+    // One client (and one HTTP connection pool) shared by the gateway and the deposit monitor.
+    // Point ethereum.node.url at a local JSON-RPC stub to exercise them without a real node.
+    @Bean(destroyMethod = "shutdown")
+    public Web3j web3j() {
+        log.info("Connecting to Ethereum node at {}", ethereumNodeUrl);
+        return Web3j.build(new HttpService(ethereumNodeUrl));
+    }
+}
@@ -2,13 +2,20 @@ package com.movie.bookMyShow.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import com.movie.bookMyShow.dto.ApiResponse;
+import com.movie.bookMyShow.dto.BulkShowRequest;
 import com.movie.bookMyShow.dto.CredentialsRequest;
+import com.movie.bookMyShow.dto.ScheduleRequest;
+import com.movie.bookMyShow.dto.SeatLayoutRequest;
 import com.movie.bookMyShow.dto.ShowRequest;
 import com.movie.bookMyShow.model.*;
 import com.movie.bookMyShow.service.*;
+import com.movie.bookMyShow.service.payment.PaymentGatewayFactory;
+import com.movie.bookMyShow.service.notification.TicketNotificationConsumer;
 import com.movie.bookMyShow.util.JwtUtil;
+import com.movie.bookMyShow.util.MonitoredExecutor;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +25,7 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Slf4j
 @RestController
@@ -44,6 +52,50 @@ public class AdminController {
         return ResponseEntity.status(response.getStatus()).body(response);
     }
 
+    @PostMapping("/add-shows")
+    public ResponseEntity<ApiResponse> addShows(@Valid @RequestBody BulkShowRequest request) {
+        ApiResponse response = showService.addShows(request.getShows());
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
+    @Autowired
+    private Map<String, MonitoredExecutor> executors;
+    @GetMapping("/executors")
+    public ResponseEntity<Map<String, Map<String, Object>>> executorStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        executors.forEach((name, executor) -> stats.put(name, executor.stats()));
+        return ResponseEntity.ok(stats);
+    }
+
+    @Autowired
+    private PaymentGatewayFactory paymentGatewayFactory;
+    @GetMapping("/payment-gateways")
+    public ResponseEntity<Map<String, Map<String, Object>>> paymentGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayFactory.stats());
+    }
+
+    @Autowired
+    private PaymentReconciliationJob paymentReconciliationJob;
+    @GetMapping("/payments/reconciliation")
+    public ResponseEntity<Map<String, Object>> reconciliationStats() {
+        return ResponseEntity.ok(paymentReconciliationJob.stats());
+    }
+
+    @Autowired
+    private TicketNotificationConsumer ticketNotificationConsumer;
+    @GetMapping("/notifications/tickets")
+    public ResponseEntity<Map<String, Object>> ticketNotificationStats() {
+        return ResponseEntity.ok(ticketNotificationConsumer.stats());
+    }
+
+    @Autowired
+    private ShowSchedulerService showSchedulerService;
+    @PostMapping("/schedule-shows")
+    public ResponseEntity<ApiResponse> scheduleShows(@Valid @RequestBody ScheduleRequest request) {
+        ApiResponse response = showSchedulerService.schedule(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
+
     @Autowired
     private CityService cityService;
     @PostMapping("/add-city")
@@ -79,6 +131,12 @@ public class AdminController {
         ApiResponse response = seatService.addSeat(seat);
         return ResponseEntity.status(response.getStatus()).body(response);
     }
+
+    @PostMapping("/add-seat-layout")
+    public ResponseEntity<ApiResponse> addSeatLayout(@Valid @RequestBody SeatLayoutRequest request) {
+        ApiResponse response = seatService.addSeatLayout(request);
+        return ResponseEntity.status(response.getStatus()).body(response);
+    }
     @Autowired
     private AdminService adminService;
 
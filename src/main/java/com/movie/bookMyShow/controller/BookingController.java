@@ -1,28 +1,64 @@
 package com.movie.bookMyShow.controller;
 
+import com.movie.bookMyShow.dto.BookingHistoryResponse;
 import com.movie.bookMyShow.dto.BookingRequest;
 import com.movie.bookMyShow.dto.BookingResponse;
+import com.movie.bookMyShow.dto.BookingStatusDTO;
+import com.movie.bookMyShow.dto.PhoneVerificationRequest;
 import com.movie.bookMyShow.dto.TicketDTO;
 import com.movie.bookMyShow.service.BookingService;
+import com.movie.bookMyShow.service.BookingStatusNotifier;
+import com.movie.bookMyShow.service.CustomerOtpService;
+import com.movie.bookMyShow.service.IdempotencyService;
+import com.movie.bookMyShow.util.JwtUtil;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/booking")
 public class BookingController {
+    private static final long MAX_STATUS_WAIT_MS = 60000;
+    private static final String CUSTOMER_COOKIE = "customer_token";
+
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingStatusNotifier bookingStatusNotifier;
+    private final CustomerOtpService customerOtpService;
+    private final JwtUtil jwtUtil;
+
+    @Value("${customer.session.ttl-minutes:30}")
+    private long customerSessionTtlMinutes;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService,
+                             BookingStatusNotifier bookingStatusNotifier, CustomerOtpService customerOtpService,
+                             JwtUtil jwtUtil) {
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+        this.bookingStatusNotifier = bookingStatusNotifier;
+        this.customerOtpService = customerOtpService;
+        this.jwtUtil = jwtUtil;
     }
 
     @PostMapping("/seats")
-    public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody BookingRequest request) throws InterruptedException {
+    public ResponseEntity<BookingResponse> createBooking(@Valid @RequestBody BookingRequest request,
+                                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) throws InterruptedException {
         System.out.println("Show ID: " + request.getShowId());
 //        System.out.println("Seat ID: " + request.getSeatIds().getFirst());
 
-        BookingResponse response = bookingService.initiateBooking(request);
+        // Retries with the same Idempotency-Key get the original response instead of a new hold and payment
+        BookingResponse response = idempotencyService.execute(idempotencyKey, request,
+                () -> bookingService.initiateBooking(request));
 
         return ResponseEntity.ok(response);
     }
@@ -35,4 +71,52 @@ public class BookingController {
         return ResponseEntity.ok(ticketDTO);
     }
 
+    // Parks the request until the booking is confirmed, failed or reverted, instead of polling /bookings
+    @GetMapping("/status")
+    public DeferredResult<BookingStatusDTO> getBookingStatus(@RequestParam String holdId,
+                                                             @RequestParam(defaultValue = "30000") long timeoutMs) {
+        return bookingStatusNotifier.await(holdId, Math.min(Math.max(timeoutMs, 0), MAX_STATUS_WAIT_MS));
+    }
+
+    @GetMapping(value = "/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingStatus(@RequestParam String holdId) {
+        return bookingStatusNotifier.stream(holdId);
+    }
+
+    // Step 1 of history access: send a one-time code to the phone number
+    @PostMapping("/history/otp")
+    public ResponseEntity<Map<String, String>> sendHistoryCode(@Valid @RequestBody PhoneVerificationRequest request) {
+        customerOtpService.sendCode(request.getPhoneNumber());
+        return ResponseEntity.accepted().body(Map.of("message", "Verification code sent"));
+    }
+
+    // Step 2: a correct code opens a short customer session for that number only
+    @PostMapping("/history/verify")
+    public ResponseEntity<Map<String, String>> verifyHistoryCode(@Valid @RequestBody PhoneVerificationRequest request) {
+        customerOtpService.verify(request.getPhoneNumber(), request.getCode());
+        Duration ttl = Duration.ofMinutes(customerSessionTtlMinutes);
+        ResponseCookie cookie = ResponseCookie.from(CUSTOMER_COOKIE,
+                        jwtUtil.generateCustomerToken(request.getPhoneNumber(), ttl.toMillis()))
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("None")
+                .maxAge(ttl)
+                .path("/booking/history")
+                .build();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .body(Map.of("message", "Phone number verified"));
+    }
+
+    // History of the verified phone number only; the number never comes from the request itself
+    @GetMapping("/history")
+    public ResponseEntity<BookingHistoryResponse> getBookingHistory(@CookieValue(name = CUSTOMER_COOKIE, required = false) String customerToken,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "20") int size) {
+        String phoneNumber = customerToken == null ? null : jwtUtil.extractCustomerPhone(customerToken);
+        if (phoneNumber == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(bookingService.getBookingHistory(phoneNumber, cursor, size));
+    }
 }
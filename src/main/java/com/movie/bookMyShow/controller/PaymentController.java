@@ -2,36 +2,63 @@ package com.movie.bookMyShow.controller;
 
 import com.movie.bookMyShow.dto.ApiResponse;
 import com.movie.bookMyShow.enums.PaymentStatus;
-import com.movie.bookMyShow.service.payment.PaymentGateway;
-import com.movie.bookMyShow.service.payment.PaymentGatewayFactory;
+import com.movie.bookMyShow.exception.PaymentGatewayUnavailableException;
+import com.movie.bookMyShow.service.PaymentStatusCache;
+import com.movie.bookMyShow.service.payment.UpiCallbackService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
     @Autowired
-    private PaymentGatewayFactory paymentGatewayFactory;
+    private PaymentStatusCache paymentStatusCache;
+
+    @Autowired
+    private UpiCallbackService upiCallbackService;
 
+    // Async: the request thread is released while a gateway lookup (if any) runs
     @GetMapping("/status/{paymentMethod}/{address}")
-    public ApiResponse checkPaymentStatus(
+    public CompletableFuture<ApiResponse> checkPaymentStatus(
             @PathVariable String paymentMethod,
             @PathVariable String address,
             @RequestParam(required = false) Double requiredAmount) {
 
-        PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(paymentMethod);
-        try {
-            PaymentStatus status = gateway.checkPaymentStatus(address,requiredAmount);
-            if(status == PaymentStatus.FAILED || status == PaymentStatus.INVALID_AMOUNT) {
-                return new ApiResponse(400, "Payment failed or insufficient amount.");
-            }
-            if(status == PaymentStatus.PENDING) {
-                return new ApiResponse(202, "Payment is still pending.");
-            }
-            return new ApiResponse(200, "Payment status: " + status.name());
-        } catch (Exception e) {
-            return new ApiResponse(500, "Error checking payment status: " + e.getMessage());
+        return paymentStatusCache.getStatus(paymentMethod, address, requiredAmount)
+                .thenApply(status -> {
+                    if(status == PaymentStatus.FAILED || status == PaymentStatus.INVALID_AMOUNT) {
+                        return new ApiResponse(400, "Payment failed or insufficient amount.");
+                    }
+                    if(status == PaymentStatus.PENDING) {
+                        return new ApiResponse(202, "Payment is still pending.");
+                    }
+                    return new ApiResponse(200, "Payment status: " + status.name());
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof PaymentGatewayUnavailableException) {
+                        return new ApiResponse(503, cause.getMessage());
+                    }
+                    return new ApiResponse(500, "Error checking payment status: " + cause.getMessage());
+                });
+    }
+
+    // Called by the UPI provider, not by users: authenticated by the HMAC signature, so the body is taken raw
+    @PostMapping("/webhooks/upi")
+    public ResponseEntity<ApiResponse> upiWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-Upi-Timestamp", required = false) String timestamp,
+            @RequestHeader(value = "X-Upi-Signature", required = false) String signature) {
+
+        if (timestamp == null || signature == null) {
+            return ResponseEntity.status(401).body(new ApiResponse(401, "Missing webhook signature"));
         }
+        ApiResponse response = upiCallbackService.handle(body, timestamp, signature);
+        return ResponseEntity.status(response.getStatus()).body(response);
     }
-} 
\ No newline at end of file
+}
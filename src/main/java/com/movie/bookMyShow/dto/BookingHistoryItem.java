@@ -0,0 +1,23 @@
+package com.movie.bookMyShow.dto;
+
+import com.movie.bookMyShow.enums.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flat row for booking history; filled by a constructor query, no entity graph loaded
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingHistoryItem {
+    private String holdId;
+    private Long showId;
+    private String movieName;
+    private String theatreName;
+    private LocalDateTime showTime;
+    private LocalDateTime bookingTime;
+    private double price;
+    private BookingStatus status;
+}
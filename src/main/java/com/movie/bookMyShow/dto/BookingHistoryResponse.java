@@ -0,0 +1,15 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingHistoryResponse {
+    private List<BookingHistoryItem> bookings;
+    private String nextCursor; // Pass back as ?cursor= for the next page; null on the last page
+}
@@ -0,0 +1,15 @@
+package com.movie.bookMyShow.dto;
+
+import com.movie.bookMyShow.enums.BookingProgress;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusDTO {
+    private String holdId;
+    private BookingProgress status;
+    private String message;
+}
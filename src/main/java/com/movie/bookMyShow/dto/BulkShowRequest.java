@@ -0,0 +1,16 @@
+package com.movie.bookMyShow.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkShowRequest {
+    @NotEmpty(message = "At least one show is required")
+    private List<ShowRequest> shows;
+}
@@ -0,0 +1,17 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BulkShowResponse extends ApiResponse {
+    private final int created;
+    private final List<ShowRowResult> rows;
+
+    public BulkShowResponse(int status, String message, int created, List<ShowRowResult> rows) {
+        super(status, message);
+        this.created = created;
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,17 @@
+package com.movie.bookMyShow.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovieTarget {
+    private int movieId;
+    @Min(value = 1, message = "Target shows must be at least 1")
+    @Max(value = 1000, message = "Target shows cannot exceed 1000")
+    private int targetShows; // Shows wanted across the whole scheduling window
+}
@@ -0,0 +1,16 @@
+package com.movie.bookMyShow.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PhoneVerificationRequest {
+    @NotBlank(message = "Phone number is required")
+    private String phoneNumber;
+
+    private String code; // One-time code; only when verifying
+}
@@ -0,0 +1,41 @@
+package com.movie.bookMyShow.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleRequest {
+    @NotNull(message = "Theatre ID is required")
+    private Long theatreId;
+
+    @NotEmpty(message = "At least one screen is required")
+    private List<Long> screenIds;
+
+    @Valid
+    @NotEmpty(message = "At least one movie is required")
+    private List<MovieTarget> movies;
+
+    @NotNull(message = "From date is required")
+    private LocalDate fromDate;
+
+    @NotNull(message = "To date is required")
+    private LocalDate toDate; // Inclusive
+
+    private LocalTime openingTime = LocalTime.of(9, 0);
+    private LocalTime closingTime = LocalTime.of(23, 59); // Earlier than openingTime means past midnight
+
+    private int cleaningBufferMinutes = 15;
+    private int adBufferMinutes = 10;
+
+    private boolean commit; // false only proposes the timetable
+}
@@ -0,0 +1,25 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public class ScheduleResponse extends ApiResponse {
+    private final List<ShowDTO> shows;
+    private final Map<Long, Double> screenUtilization; // Booked share of opening hours per screen
+    private final double utilization;
+    private final Map<Integer, Integer> unplacedShows; // movieId -> shows that did not fit
+    private final BulkShowResponse commitResult;
+
+    public ScheduleResponse(int status, String message, List<ShowDTO> shows, Map<Long, Double> screenUtilization,
+                            double utilization, Map<Integer, Integer> unplacedShows, BulkShowResponse commitResult) {
+        super(status, message);
+        this.shows = shows;
+        this.screenUtilization = screenUtilization;
+        this.utilization = utilization;
+        this.unplacedShows = unplacedShows;
+        this.commitResult = commitResult;
+    }
+}
@@ -0,0 +1,20 @@
+package com.movie.bookMyShow.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatLayoutRequest {
+    @NotNull(message = "Screen ID is required")
+    private Long screenId;
+
+    @NotEmpty(message = "At least one row band is required")
+    private List<SeatRowBand> bands;
+}
@@ -0,0 +1,19 @@
+package com.movie.bookMyShow.dto;
+
+import com.movie.bookMyShow.enums.SeatCategory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SeatRowBand {
+    private char fromRow;          // First row of the band, e.g. 'A'
+    private char toRow;            // Last row of the band (inclusive)
+    private int seatsPerRow;       // Seat positions per row, numbered from 1
+    private List<Long> gaps;       // Positions left empty for aisles; numbering keeps counting across them
+    private SeatCategory category;
+}
@@ -0,0 +1,18 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+public class ShowConflictResponse extends ApiResponse {
+    private final List<ShowSlotDTO> conflicts;
+    private final LocalDateTime nextAvailableStart; // Earliest start at or after the requested one that fits
+
+    public ShowConflictResponse(int status, String message, List<ShowSlotDTO> conflicts, LocalDateTime nextAvailableStart) {
+        super(status, message);
+        this.conflicts = conflicts;
+        this.nextAvailableStart = nextAvailableStart;
+    }
+}
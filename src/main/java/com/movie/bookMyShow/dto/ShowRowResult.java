@@ -0,0 +1,26 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShowRowResult {
+    private int index; // Position of the row in the request
+    private int status;
+    private String message;
+    private Long showId;
+    private List<ShowSlotDTO> conflicts;
+    private LocalDateTime nextAvailableStart;
+
+    public ShowRowResult(int index, int status, String message) {
+        this.index = index;
+        this.status = status;
+        this.message = message;
+    }
+}
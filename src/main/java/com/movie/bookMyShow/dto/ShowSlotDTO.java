@@ -0,0 +1,16 @@
+package com.movie.bookMyShow.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShowSlotDTO {
+    private Long showId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
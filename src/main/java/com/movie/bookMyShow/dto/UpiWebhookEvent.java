@@ -0,0 +1,18 @@
+package com.movie.bookMyShow.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Payment notification pushed by the UPI provider; transactionId is the reference we sent, i.e. the holdId
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UpiWebhookEvent {
+    private String eventId;
+    private String transactionId;
+    private String status; // SUCCESS, FAILED or PENDING
+    private Double amount;
+}
@@ -0,0 +1,13 @@
+package com.movie.bookMyShow.enums;
+
+// Outcome of a booking as seen by the client waiting on its holdId
+public enum BookingProgress {
+    PENDING,
+    CONFIRMED,
+    FAILED,
+    REVERTED;
+
+    public boolean isTerminal() {
+        return this != PENDING;
+    }
+}
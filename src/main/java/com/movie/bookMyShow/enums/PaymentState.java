@@ -0,0 +1,22 @@
+package com.movie.bookMyShow.enums;
+
+// Persisted lifecycle of a PaymentRecord: INITIATED -> AWAITING -> CONFIRMED,
+// or -> FAILED -> REVERTED when money has to go back (REFUND_REQUIRED if it can't be sent back automatically)
+public enum PaymentState {
+    INITIATED,  // Record written, gateway not called yet
+    AWAITING,   // Gateway called, waiting for the customer's payment
+    CONFIRMED,  // Paid and booked
+    FAILED,     // Not booked; a reversal may still be scheduled
+    REVERTED,   // Paid but not booked, money returned
+    REFUND_REQUIRED; // Paid but not booked, reversal unsupported or given up; refund by hand
+
+    // Legacy status column kept for existing readers
+    public PaymentStatus toPaymentStatus() {
+        return switch (this) {
+            case INITIATED, AWAITING -> PaymentStatus.PENDING;
+            case CONFIRMED -> PaymentStatus.SUCCESS;
+            case FAILED, REFUND_REQUIRED -> PaymentStatus.FAILED;
+            case REVERTED -> PaymentStatus.REVERTED;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.movie.bookMyShow.exception;
+
+public class PaymentGatewayUnavailableException extends RuntimeException {
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+}
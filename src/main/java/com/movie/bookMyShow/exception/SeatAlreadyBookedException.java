@@ -1,8 +1,21 @@
 package com.movie.bookMyShow.exception;
 
+import java.util.List;
+
 // File: com.movie.bookMyShow.exception.SeatAlreadyBookedException.java
 public class SeatAlreadyBookedException extends RuntimeException {
+    private final List<Long> seatIds; // Seats that were lost, when known
+
     public SeatAlreadyBookedException(String message) {
+        this(message, List.of());
+    }
+
+    public SeatAlreadyBookedException(String message, List<Long> seatIds) {
         super(message);
+        this.seatIds = seatIds;
+    }
+
+    public List<Long> getSeatIds() {
+        return seatIds;
     }
 }
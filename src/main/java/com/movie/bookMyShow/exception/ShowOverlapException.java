@@ -0,0 +1,8 @@
+package com.movie.bookMyShow.exception;
+
+// Raised when the show_no_overlap constraint rejects a show another transaction got in first
+public class ShowOverlapException extends RuntimeException {
+    public ShowOverlapException(String message) {
+        super(message);
+    }
+}
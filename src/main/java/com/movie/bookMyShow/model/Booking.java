@@ -11,6 +11,10 @@ import java.util.List;
 
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_phone_time", columnList = "phone_number, booking_time, hold_id"),
+        @Index(name = "idx_booking_show", columnList = "show_id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -38,4 +42,7 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status = BookingStatus.PENDING;
+
+    @Column(columnDefinition = "TEXT")
+    private String ticketSnapshot; // TicketDTO as JSON, written once at confirmation
 }
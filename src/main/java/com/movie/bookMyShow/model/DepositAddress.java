@@ -0,0 +1,33 @@
+package com.movie.bookMyShow.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An ETH deposit address derived from the configured xpub. Rows are derived ahead of time with
+ * {@code hold_id} empty and handed out to bookings one at a time; an index is never reused.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "deposit_address")
+public class DepositAddress {
+    @Id
+    private Integer derivationIndex; // Child index under the xpub, from deposit_address_index_seq
+
+    @Column(nullable = false, unique = true)
+    private String address;
+
+    @Column(unique = true)
+    private String holdId; // Null while the address is still in the pool
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime claimedAt;
+}
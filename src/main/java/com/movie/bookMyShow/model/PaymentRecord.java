@@ -1,5 +1,6 @@
 package com.movie.bookMyShow.model;
 
+import com.movie.bookMyShow.enums.PaymentState;
 import com.movie.bookMyShow.enums.PaymentStatus;
 import jakarta.persistence.*;
 import lombok.Data;
@@ -14,7 +15,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "payment_records")
+@Table(name = "payment_records", indexes = {
+        @Index(name = "idx_payment_phone_time", columnList = "phone_number, attempt_time"),
+        @Index(name = "idx_payment_next_check", columnList = "next_check_at"),
+        @Index(name = "idx_payment_hold", columnList = "hold_id"),
+        @Index(name = "idx_payment_reference", columnList = "payment_reference"),
+        @Index(name = "idx_payment_show", columnList = "show_id")
+})
 public class PaymentRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -56,4 +63,31 @@ public class PaymentRecord {
 
     @Column
     private LocalDateTime revertedTime;
+
+    // Durable state machine; records written before it existed have no state and are left alone
+    @Enumerated(EnumType.STRING)
+    private PaymentState state;
+
+    @Column(length = 1000)
+    private String seatIds; // Comma separated, so the booking can be rebuilt after a restart
+
+    private String paymentReference; // Deposit address for crypto payments
+
+    private LocalDateTime deadline; // Payment window closes
+
+    private LocalDateTime nextCheckAt; // Durable timer: the recovery scheduler acts on the record once this passes
+
+    private LocalDateTime leaseUntil; // A node is working on the record until then
+
+    @Column(columnDefinition = "integer default 0")
+    private int attempts; // In the current state: gateway calls, status checks or reversals
+
+    @Column(columnDefinition = "integer default 0")
+    private int recoveryFailures; // Consecutive recovery runs that threw; reset by any step that completes
+
+    private String bookedHoldId; // Hold the booking was committed under, when the original hold expired and the seats were re-held
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
 } 
\ No newline at end of file
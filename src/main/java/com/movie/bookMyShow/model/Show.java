@@ -13,12 +13,17 @@ import java.util.List;
 
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_show_screen_start", columnList = "screen_id, start_time"),
+        @Index(name = "idx_show_archived_end", columnList = "archived, end_time")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Show {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "show_seq")
+    @SequenceGenerator(name = "show_seq", sequenceName = "show_seq", allocationSize = 50) // Lets Hibernate batch inserts
     private Long showId;
 
     @ManyToOne
@@ -36,6 +41,11 @@ public class Show {
     @Temporal(TemporalType.TIMESTAMP)
     private LocalDateTime endTime;
 
+    // Set by BookingArchiver once the show's booking rows have moved to the archive tables
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    @JsonIgnore
+    private boolean archived;
+
     @OneToMany(mappedBy = "show", cascade = CascadeType.ALL)
     private List<ShowSeat> showSeats = new ArrayList<>();
 
@@ -6,6 +6,7 @@ import lombok.*;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_show_seat_show_seat", columnNames = {"show_id", "seat_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
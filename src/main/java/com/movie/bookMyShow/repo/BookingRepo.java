@@ -1,12 +1,44 @@
 package com.movie.bookMyShow.repo;
 
+import com.movie.bookMyShow.dto.BookingHistoryItem;
 import com.movie.bookMyShow.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepo extends JpaRepository<Booking, String> {
     Optional<Booking> findByHoldId(String holdId);
+
+    @Query("SELECT b.ticketSnapshot FROM Booking b WHERE b.holdId = :holdId AND b.ticketSnapshot IS NOT NULL")
+    Optional<String> findTicketSnapshotByHoldId(@Param("holdId") String holdId);
+
+    // Keyset pagination over idx_booking_phone_time, newest first; hold_id breaks ties on equal times
+    @Query("""
+        SELECT new com.movie.bookMyShow.dto.BookingHistoryItem(
+            b.holdId, s.showId, m.movieName, t.theatreName, s.startTime, b.bookingTime, b.price, b.status)
+        FROM Booking b JOIN b.show s JOIN s.movie m JOIN s.theatre t
+        WHERE b.phoneNumber = :phoneNumber
+        ORDER BY b.bookingTime DESC, b.holdId DESC
+        """)
+    List<BookingHistoryItem> findHistoryFirstPage(@Param("phoneNumber") String phoneNumber, Pageable pageable);
+
+    @Query("""
+        SELECT new com.movie.bookMyShow.dto.BookingHistoryItem(
+            b.holdId, s.showId, m.movieName, t.theatreName, s.startTime, b.bookingTime, b.price, b.status)
+        FROM Booking b JOIN b.show s JOIN s.movie m JOIN s.theatre t
+        WHERE b.phoneNumber = :phoneNumber
+          AND (b.bookingTime < :bookingTime OR (b.bookingTime = :bookingTime AND b.holdId < :holdId))
+        ORDER BY b.bookingTime DESC, b.holdId DESC
+        """)
+    List<BookingHistoryItem> findHistoryAfter(@Param("phoneNumber") String phoneNumber,
+                                              @Param("bookingTime") LocalDateTime bookingTime,
+                                              @Param("holdId") String holdId,
+                                              Pageable pageable);
 }
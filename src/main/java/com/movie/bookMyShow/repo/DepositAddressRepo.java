@@ -0,0 +1,11 @@
+package com.movie.bookMyShow.repo;
+
+import com.movie.bookMyShow.model.DepositAddress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DepositAddressRepo extends JpaRepository<DepositAddress, Integer> {
+
+    long countByHoldIdIsNull();
+}
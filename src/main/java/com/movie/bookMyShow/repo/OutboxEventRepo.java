@@ -0,0 +1,29 @@
+package com.movie.bookMyShow.repo;
+
+import com.movie.bookMyShow.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepo extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several relay instances drain the table without handing out the same row twice.
+    // A row waits while an older row of the same key is backing off, which keeps per-key order.
+    @Query(value = """
+        SELECT * FROM outbox_event e
+        WHERE e.next_attempt_at <= :now
+          AND NOT EXISTS (
+              SELECT 1 FROM outbox_event o
+              WHERE o.message_key = e.message_key AND o.id < e.id AND o.next_attempt_at > :now
+          )
+        ORDER BY e.id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<OutboxEvent> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,15 +1,82 @@
 package com.movie.bookMyShow.repo;
 
+import com.movie.bookMyShow.enums.PaymentState;
+import com.movie.bookMyShow.enums.PaymentStatus;
 import com.movie.bookMyShow.model.PaymentRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRecordRepo extends JpaRepository<PaymentRecord, Long> {
     List<PaymentRecord> findByHoldId(String holdId);
-    List<PaymentRecord> findByPhoneNumber(String phoneNumber);
+    Optional<PaymentRecord> findFirstByHoldIdOrderByIdDesc(String holdId); // idx_payment_hold
+    Optional<PaymentRecord> findFirstByPaymentReferenceOrderByIdDesc(String paymentReference); // idx_payment_reference
+    List<PaymentRecord> findByPhoneNumberOrderByAttemptTimeDesc(String phoneNumber, Pageable pageable); // idx_payment_phone_time
     List<PaymentRecord> findByShowId(Long showId);
-    List<PaymentRecord> findByStatus(String status);
+    List<PaymentRecord> findByStatus(PaymentStatus status);
+
+    // Records whose timer has passed and that no node is working on, oldest first (idx_payment_next_check)
+    @Query("SELECT p.id FROM PaymentRecord p WHERE p.nextCheckAt <= :now AND (p.leaseUntil IS NULL OR p.leaseUntil < :now) ORDER BY p.nextCheckAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentRecord p SET p.nextCheckAt = :now WHERE p.state IN :states AND p.nextCheckAt > :now")
+    int expedite(@Param("states") Collection<PaymentState> states, @Param("now") LocalDateTime now);
+
+    // Wakes one hold's pending timer, e.g. when its provider callback arrives on a node not running the flow
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentRecord p SET p.nextCheckAt = :now WHERE p.holdId = :holdId AND p.state IN :states AND p.nextCheckAt > :now")
+    int expediteHold(@Param("holdId") String holdId, @Param("states") Collection<PaymentState> states,
+                     @Param("now") LocalDateTime now);
+
+    // Keyset page of records the normal flow no longer drives: stale legacy PENDING rows and reversals that gave up
+    @Query("""
+        SELECT p.id FROM PaymentRecord p
+        WHERE p.id > :afterId
+          AND ((p.state IS NULL AND p.status = com.movie.bookMyShow.enums.PaymentStatus.PENDING AND p.attemptTime < :staleBefore)
+            OR (p.state = com.movie.bookMyShow.enums.PaymentState.FAILED AND p.isReverted = false AND p.nextCheckAt IS NULL))
+        ORDER BY p.id
+        """)
+    List<Long> findReconcilable(@Param("afterId") long afterId, @Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    // Drift between payments and bookings, over records old enough to have settled
+    @Query(value = """
+        SELECT count(*) FROM payment_records p
+        WHERE p.status = 'SUCCESS' AND p.attempt_time >= :since AND p.attempt_time < :until
+          AND NOT EXISTS (SELECT 1 FROM booking b WHERE b.hold_id IN (p.hold_id, p.booked_hold_id) AND b.status = 'CONFIRMED')
+        """, nativeQuery = true)
+    long countPaidWithoutBooking(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    @Query(value = """
+        SELECT count(*) FROM booking b
+        WHERE b.status = 'CONFIRMED' AND b.booking_time >= :since AND b.booking_time < :until
+          AND NOT EXISTS (SELECT 1 FROM payment_records p WHERE b.hold_id IN (p.hold_id, p.booked_hold_id) AND p.status = 'SUCCESS')
+        """, nativeQuery = true)
+    long countBookedWithoutPayment(@Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+
+    @Query(value = "SELECT count(*) FROM payment_records WHERE status = 'PENDING' AND attempt_time < :until", nativeQuery = true)
+    long countPendingBefore(@Param("until") LocalDateTime until);
+
+    @Query(value = "SELECT count(*) FROM payment_records WHERE state = 'FAILED' AND is_reverted = false", nativeQuery = true)
+    long countUnreverted();
+
+    long countByState(PaymentState state);
+
+    // Written before the booking is confirmed, outside the @Version check: the caller holds the lease
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentRecord p SET p.bookedHoldId = :bookedHoldId WHERE p.id = :id")
+    int setBookedHoldId(@Param("id") Long id, @Param("bookedHoldId") String bookedHoldId);
 } 
\ No newline at end of file
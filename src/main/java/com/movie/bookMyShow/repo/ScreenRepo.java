@@ -2,10 +2,22 @@ package com.movie.bookMyShow.repo;
 
 import com.movie.bookMyShow.model.Screen;
 import com.movie.bookMyShow.model.Theatre;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ScreenRepo extends JpaRepository<Screen,Long> {
     boolean existsByScreenIdAndTheatre(Long screenId, Theatre theatre);
+
+    // Serializes show scheduling per screen (addShow and addShows); ordered by id so two requests never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Screen s WHERE s.screenId IN :ids ORDER BY s.screenId")
+    List<Screen> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
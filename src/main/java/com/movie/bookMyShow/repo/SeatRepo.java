@@ -2,18 +2,17 @@ package com.movie.bookMyShow.repo;
 
 import com.movie.bookMyShow.model.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import jakarta.persistence.LockModeType;
 
 import java.util.List;
 
 public interface SeatRepo extends JpaRepository<Seat, Long> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE) // 🔒 Lock seats to prevent simultaneous bookings
-    @Query("SELECT s FROM Seat s WHERE s.seatId IN :seatIds")
-    List<Seat> findAllById(@Param("seatIds") List<Long> seatIds);
+    List<Seat> findByScreen_ScreenId(Long screenId);
 
     boolean existsByScreen_ScreenIdAndRowAndSeatNo(Long screenId, Character row, Long seatNo);
+
+    @Query("SELECT s.row, s.seatNo FROM Seat s WHERE s.screen.screenId = :screenId")
+    List<Object[]> findPositionsByScreenId(@Param("screenId") Long screenId);
 }
@@ -0,0 +1,150 @@
+package com.movie.bookMyShow.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves booking data of long-finished shows out of the hot tables into monthly archive tables
+ * ({@code booking_archive_2025_01}, ...), partitioned by the month the show ended.
+ * Work is done a few shows at a time, each batch in its own transaction, so the job never holds
+ * many locks or builds one huge transaction. The show rows themselves stay in place and are
+ * flagged {@code archived}, so later runs only look at shows that finished since.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Child tables first so foreign keys hold at every step
+    private static final String[] TABLES = {"booking_seats", "booking", "show_seat", "payment_records"};
+
+    private static final String FIND_FINISHED_SHOWS = """
+            SELECT s.show_id, s.end_time FROM show s
+            WHERE s.archived = false AND s.end_time < ?
+            ORDER BY s.end_time
+            LIMIT ?
+            """;
+
+    private static final String COLUMNS = """
+            SELECT a.attname, format_type(a.atttypid, a.atttypmod) FROM pg_attribute a
+            WHERE a.attrelid = to_regclass(?) AND a.attnum > 0 AND NOT a.attisdropped
+            ORDER BY a.attnum
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${archive.batch-shows:20}")
+    private int batchShows;
+
+    @Value("${archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    public BookingArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void archiveFinishedShows() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Map<String, Integer> moved = new LinkedHashMap<>();
+        int batches = 0;
+        try {
+            while (batches < maxBatchesPerRun) {
+                Map<String, Integer> batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach((table, rows) -> moved.merge(table, rows, Integer::sum));
+                batches++;
+            }
+        } catch (Exception e) {
+            log.error("Archival run failed after {} batches: {}", batches, e.getMessage(), e);
+        }
+        if (batches > 0) {
+            log.info("Archived rows of shows ended before {} in {} batches: {}", cutoff, batches, moved);
+        }
+    }
+
+    // Returns rows moved per table, or an empty map when nothing is left to archive
+    private Map<String, Integer> archiveBatch(LocalDateTime cutoff) {
+        Map<String, List<Long>> showsByMonth = new TreeMap<>();
+        jdbcTemplate.query(FIND_FINISHED_SHOWS, rs -> {
+            String month = rs.getTimestamp(2).toLocalDateTime().format(MONTH);
+            showsByMonth.computeIfAbsent(month, k -> new ArrayList<>()).add(rs.getLong(1));
+        }, Timestamp.valueOf(cutoff), batchShows);
+
+        Map<String, Integer> moved = new HashMap<>();
+        for (Map.Entry<String, List<Long>> entry : showsByMonth.entrySet()) {
+            Long[] showIds = entry.getValue().toArray(new Long[0]);
+            for (String table : TABLES) {
+                String archive = table + "_archive_" + entry.getKey();
+                String columns = prepareArchiveTable(table, archive);
+                int rows = jdbcTemplate.update(moveSql(table, archive, columns), (Object) showIds);
+                moved.merge(table, rows, Integer::sum);
+            }
+            jdbcTemplate.update("UPDATE show SET archived = true WHERE show_id = ANY(?)", (Object) showIds);
+        }
+        return moved;
+    }
+
+    private String moveSql(String table, String archive, String columns) {
+        String filter = switch (table) {
+            // booking_seats has no show_id; it follows its booking
+            case "booking_seats" -> "USING booking b WHERE t.hold_id = b.hold_id AND b.show_id = ANY(?)";
+            default -> "WHERE t.show_id = ANY(?)";
+        };
+        return "WITH moved AS (DELETE FROM " + table + " t " + filter + " RETURNING t.*) "
+                + "INSERT INTO " + archive + " (" + columns + ") SELECT " + columns + " FROM moved";
+    }
+
+    /**
+     * Creates the archive table on first use and adds any column the hot table gained since
+     * (ddl-auto=update adds columns over time). Returns the hot table's column list.
+     */
+    private String prepareArchiveTable(String table, String archive) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archive + " (LIKE " + table + ")");
+
+        Map<String, String> archiveColumns = columns(archive);
+        List<String> names = new ArrayList<>();
+        for (Map.Entry<String, String> column : columns(table).entrySet()) {
+            if (!archiveColumns.containsKey(column.getKey())) {
+                jdbcTemplate.execute("ALTER TABLE " + archive + " ADD COLUMN " + column.getKey() + " " + column.getValue());
+            }
+            names.add(column.getKey());
+        }
+        return String.join(", ", names);
+    }
+
+    private Map<String, String> columns(String table) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        jdbcTemplate.query(COLUMNS, rs -> {
+            columns.put(rs.getString(1), rs.getString(2));
+        }, table);
+        return columns;
+    }
+}
@@ -0,0 +1,239 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.enums.SeatStatus;
+import com.movie.bookMyShow.exception.SeatAlreadyBookedException;
+import com.movie.bookMyShow.model.Booking;
+import com.movie.bookMyShow.model.Seat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for confirmed bookings. Confirmations arriving within a short window (or until the
+ * batch is full) are written by a single writer thread with one batched show_seat insert and one commit.
+ * Seats are inserted in one statement with ON CONFLICT DO NOTHING against the unique (show_id, seat_id)
+ * constraint; a booking that loses any seat is backed out of the batch and fails with the exact seats it lost,
+ * while the rest of the batch commits. If the shared transaction fails for another reason, each
+ * confirmation is retried in its own transaction. Every caller gets its own future.
+ */
+@Slf4j
+@Component
+public class BookingConfirmationBatcher {
+    // Conflict-aware: a seat someone else already owns is skipped instead of failing the batch, and
+    // RETURNING names the rows actually inserted. Update counts would do the same, but with
+    // reWriteBatchedInserts=true the driver reports SUCCESS_NO_INFO and the lost seats are unknown.
+    private static final String INSERT_SHOW_SEAT =
+            "INSERT INTO show_seat (show_id, seat_id, status) "
+                    + "SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::varchar[]) "
+                    + "ON CONFLICT (show_id, seat_id) DO NOTHING RETURNING show_id, seat_id";
+    private static final String DELETE_SHOW_SEAT = "DELETE FROM show_seat WHERE show_id = ? AND seat_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final BlockingQueue<PendingConfirmation> queue = new LinkedBlockingQueue<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${booking.confirm.batch-size:50}")
+    private int batchSize;
+
+    @Value("${booking.confirm.window-ms:5}")
+    private long windowMs;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public BookingConfirmationBatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                      OutboxService outboxService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * Queues a booking for the next group commit. The future completes with the ticket once the
+     * booking, its show seats and its outbox message are committed.
+     */
+    public CompletableFuture<TicketDTO> confirm(Booking booking, TicketDTO ticket) {
+        PendingConfirmation pending = new PendingConfirmation(booking, ticket);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("Booking writer is shutting down"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::run, "booking-confirm-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingConfirmation first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                List<PendingConfirmation> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                // Give concurrent confirmations a short window to join the same commit
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingConfirmation next = remaining > 0 && running
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: loop once more to flush whatever is still queued
+                running = false;
+            } catch (Exception e) {
+                log.error("Booking writer loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void write(List<PendingConfirmation> batch) {
+        try {
+            Map<PendingConfirmation, List<Long>> lost = transactionTemplate.execute(status -> insert(batch));
+            batch.forEach(pending -> resolve(pending, lost.get(pending)));
+            log.info("Group-committed {} bookings ({} lost seats to other bookings)", batch.size() - lost.size(), lost.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} bookings failed ({}), retrying one by one", batch.size(), e.getMessage());
+            for (PendingConfirmation pending : batch) {
+                try {
+                    Map<PendingConfirmation, List<Long>> lost = transactionTemplate.execute(status -> insert(List.of(pending)));
+                    resolve(pending, lost.get(pending));
+                } catch (Exception single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void resolve(PendingConfirmation pending, List<Long> lostSeats) {
+        if (lostSeats == null) {
+            pending.future.complete(pending.ticket);
+        } else {
+            pending.future.completeExceptionally(new SeatAlreadyBookedException(
+                    "Seats " + lostSeats + " are already booked.", lostSeats));
+        }
+    }
+
+    /**
+     * Inserts the batch and returns the confirmations that lost at least one seat, with the seats lost.
+     * None of their rows remain in the transaction.
+     */
+    private Map<PendingConfirmation, List<Long>> insert(List<PendingConfirmation> batch) {
+        List<Long> showIds = new ArrayList<>();
+        List<Long> seatIds = new ArrayList<>();
+        for (PendingConfirmation pending : batch) {
+            Long showId = pending.booking.getShow().getShowId();
+            pending.booking.getSeats().forEach(seat -> {
+                showIds.add(showId);
+                seatIds.add(seat.getSeatId());
+            });
+        }
+        String[] statuses = new String[seatIds.size()];
+        Arrays.fill(statuses, SeatStatus.BOOKED.name());
+        Set<ShowSeatKey> inserted = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SHOW_SEAT);
+            statement.setArray(1, connection.createArrayOf("bigint", showIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("bigint", seatIds.toArray()));
+            statement.setArray(3, connection.createArrayOf("varchar", statuses));
+            return statement;
+        }, (rs, rowNum) -> new ShowSeatKey(rs.getLong("show_id"), rs.getLong("seat_id"))));
+
+        Map<PendingConfirmation, List<Long>> lost = new HashMap<>();
+        List<Object[]> backOut = new ArrayList<>();
+        for (PendingConfirmation pending : batch) {
+            Long showId = pending.booking.getShow().getShowId();
+            List<Long> lostSeats = new ArrayList<>();
+            List<Object[]> ownRows = new ArrayList<>();
+            for (Seat seat : pending.booking.getSeats()) {
+                // Removing the row claims it, so of two bookings in this batch wanting a seat only the first gets it
+                if (inserted.remove(new ShowSeatKey(showId, seat.getSeatId()))) {
+                    ownRows.add(new Object[]{showId, seat.getSeatId()});
+                } else {
+                    lostSeats.add(seat.getSeatId());
+                }
+            }
+            if (lostSeats.isEmpty()) {
+                continue;
+            }
+            log.warn("Booking {} lost seats {} to another booking", pending.booking.getHoldId(), lostSeats);
+            lost.put(pending, lostSeats);
+            backOut.addAll(ownRows);
+        }
+        if (!backOut.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SHOW_SEAT, backOut);
+        }
+
+        for (PendingConfirmation pending : batch) {
+            if (lost.containsKey(pending)) {
+                continue;
+            }
+            // persist, not save: the hold id is assigned, so save would merge and SELECT first
+            entityManager.persist(pending.booking);
+            outboxService.enqueueTicket(pending.booking.getHoldId(), pending.ticket);
+        }
+        entityManager.flush();
+        return lost;
+    }
+
+    private record ShowSeatKey(long showId, long seatId) {
+    }
+
+    private static class PendingConfirmation {
+        private final Booking booking;
+        private final TicketDTO ticket;
+        private final CompletableFuture<TicketDTO> future = new CompletableFuture<>();
+
+        private PendingConfirmation(Booking booking, TicketDTO ticket) {
+            this.booking = booking;
+            this.ticket = ticket;
+        }
+    }
+}
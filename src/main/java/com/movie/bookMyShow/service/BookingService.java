@@ -8,55 +8,75 @@ import com.movie.bookMyShow.model.Booking;
 import com.movie.bookMyShow.model.Seat;
 import com.movie.bookMyShow.model.Show;
 import com.movie.bookMyShow.repo.BookingRepo;
-import com.movie.bookMyShow.repo.SeatRepo;
 import com.movie.bookMyShow.repo.ShowRepo;
 import com.movie.bookMyShow.service.payment.Crypto.CryptoGateway;
 import com.movie.bookMyShow.service.payment.Crypto.CryptoGatewayFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class BookingService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final ShowRepo showRepo;
-    private final SeatRepo seatRepo;
+    private final SeatLayoutCache seatLayoutCache;
     private final SeatHoldService seatHoldService;
     private final PaymentService paymentService;
     private final BookingRepo bookingRepo;
     private final CryptoGatewayFactory cryptoGatewayFactory;
+    private final TicketSnapshotStore ticketSnapshotStore;
 
     public BookingService(
             ShowRepo showRepo,
-            SeatRepo seatRepo,
+            SeatLayoutCache seatLayoutCache,
             SeatHoldService seatHoldService,
             PaymentService paymentService,
             BookingRepo bookingRepo,
-            CryptoGatewayFactory cryptoGatewayFactory) {
+            CryptoGatewayFactory cryptoGatewayFactory,
+            TicketSnapshotStore ticketSnapshotStore) {
         this.showRepo = showRepo;
-        this.seatRepo = seatRepo;
+        this.seatLayoutCache = seatLayoutCache;
         this.seatHoldService = seatHoldService;
         this.paymentService = paymentService;
         this.bookingRepo = bookingRepo;
         this.cryptoGatewayFactory = cryptoGatewayFactory;
+        this.ticketSnapshotStore = ticketSnapshotStore;
     }
 
-    @Transactional
+    // No transaction, row locks or show_seat reads here: Redis holds serialize competing requests and
+    // the ON CONFLICT insert at confirmation is what rejects a seat that is already sold.
     public BookingResponse initiateBooking(BookingRequest request) {
         // 1. Validate show and seats exist.
         Show show = showRepo.findById(request.getShowId())
                 .orElseThrow(() -> new ResourceNotFoundException("Show not found with id: " + request.getShowId()));
 
-        List<Seat> seats = seatRepo.findAllById(request.getSeatIds());
-        if (seats.size() != request.getSeatIds().size()) {
-            throw new ResourceNotFoundException("One or more seats not found.");
+        // Seats must belong to the show's screen; checked against the cached layout, not the seat table
+        Map<Long, Seat> layout = seatLayoutCache.seats(show.getScreen().getScreenId());
+        List<Seat> seats = new ArrayList<>();
+        for (Long seatId : request.getSeatIds()) {
+            Seat seat = layout.get(seatId);
+            if (seat == null) {
+                throw new ResourceNotFoundException("One or more seats not found.");
+            }
+            seats.add(seat);
+        }
+        if (seats.stream().map(Seat::getSeatId).distinct().count() != seats.size()) {
+            throw new IllegalArgumentException("Duplicate seats in request");
         }
 
         try {
-            // 2. Atomically acquire a hold on the seats.
-            // This single method call now handles checking DB availability AND acquiring Redis holds safely.
+            // 2. Atomically acquire a hold on the seats in Redis.
             String holdId = seatHoldService.holdSeats(request.getShowId(), request.getSeatIds());
             
             // 3. If the hold is successful, proceed with payment logic.
@@ -94,6 +114,12 @@ public class BookingService {
     }
 
     public TicketDTO getBooking(String holdId) {
+        Optional<TicketDTO> snapshot = ticketSnapshotStore.find(holdId);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+
+        // Bookings without a snapshot (failed, or confirmed before snapshots existed) are rebuilt from the rows
         Booking booking = bookingRepo.findByHoldId(holdId)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found for hold ID: " + holdId));
         
@@ -111,5 +137,49 @@ public class BookingService {
                 booking.getBookingTime()
         );
     }
-}
 
+    /**
+     * One page of a customer's bookings, newest first. The cursor is the position of the last row
+     * returned, so each page is an index range scan regardless of how deep the client pages.
+     */
+    public BookingHistoryResponse getBookingHistory(String phoneNumber, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        // One extra row tells us whether there is a next page
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<BookingHistoryItem> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepo.findHistoryFirstPage(phoneNumber, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = bookingRepo.findHistoryAfter(phoneNumber, LocalDateTime.parse(position[0]), position[1], limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            BookingHistoryItem last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getBookingTime(), last.getHoldId());
+        }
+        return new BookingHistoryResponse(rows, nextCursor);
+    }
+
+    private String encodeCursor(LocalDateTime bookingTime, String holdId) {
+        String raw = bookingTime + "|" + holdId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(position[0]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
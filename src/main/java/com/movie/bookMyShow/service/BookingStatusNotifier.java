@@ -0,0 +1,154 @@
+package com.movie.bookMyShow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.bookMyShow.dto.BookingStatusDTO;
+import com.movie.bookMyShow.enums.BookingProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells clients how their booking ended without them polling the database.
+ * The latest status of each holdId is kept in Redis and every change is published on a Redis channel,
+ * so a client parked on any node is woken when the payment flow finishes on another one.
+ */
+@Slf4j
+@Service
+public class BookingStatusNotifier implements MessageListener {
+    public static final String CHANNEL = "booking-status";
+    private static final String KEY_PREFIX = "booking:status:";
+    private static final Duration STATUS_TTL = Duration.ofHours(1);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Set<DeferredResult<BookingStatusDTO>>> waiters = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Value("${booking.status.sse-timeout-ms:330000}")
+    private long sseTimeoutMs; // A little longer than the payment timeout
+
+    public BookingStatusNotifier(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                 RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Records a new status for the hold and wakes everyone waiting on it, on every node.
+     */
+    public void publish(String holdId, BookingProgress status, String message) {
+        try {
+            String json = objectMapper.writeValueAsString(new BookingStatusDTO(holdId, status, message));
+            redisTemplate.opsForValue().set(KEY_PREFIX + holdId, json, STATUS_TTL);
+            redisTemplate.convertAndSend(CHANNEL, json);
+        } catch (Exception e) {
+            // Clients fall back to their timeout; never fail the booking flow over a notification
+            log.error("Failed to publish status {} for holdId {}: {}", status, holdId, e.getMessage());
+        }
+    }
+
+    public BookingStatusDTO current(String holdId) {
+        String json = redisTemplate.opsForValue().get(KEY_PREFIX + holdId);
+        BookingStatusDTO status = json == null ? null : parse(json);
+        return status != null ? status : new BookingStatusDTO(holdId, BookingProgress.PENDING, "Booking is being processed");
+    }
+
+    /**
+     * Long poll: completes as soon as the booking reaches a final state, or with the current
+     * (pending) status when the timeout passes.
+     */
+    public DeferredResult<BookingStatusDTO> await(String holdId, long timeoutMs) {
+        DeferredResult<BookingStatusDTO> result = new DeferredResult<>(timeoutMs);
+        Set<DeferredResult<BookingStatusDTO>> set = waiters.computeIfAbsent(holdId, k -> ConcurrentHashMap.newKeySet());
+        set.add(result);
+        result.onTimeout(() -> result.setResult(current(holdId)));
+        result.onCompletion(() -> remove(waiters, holdId, result));
+
+        // Checked after registering so a status published in between is not missed
+        BookingStatusDTO status = current(holdId);
+        if (status.getStatus().isTerminal()) {
+            result.setResult(status);
+        }
+        return result;
+    }
+
+    /**
+     * Server-sent events: the current status first, then every transition until a final state.
+     */
+    public SseEmitter stream(String holdId) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitters.computeIfAbsent(holdId, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        emitter.onCompletion(() -> remove(emitters, holdId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(emitters, holdId, emitter));
+
+        send(emitter, current(holdId));
+        return emitter;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        BookingStatusDTO status = parse(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (status == null || status.getHoldId() == null) {
+            return;
+        }
+        Set<SseEmitter> streams = emitters.get(status.getHoldId());
+        if (streams != null) {
+            streams.forEach(emitter -> send(emitter, status));
+        }
+        if (status.getStatus().isTerminal()) {
+            Set<DeferredResult<BookingStatusDTO>> parked = waiters.remove(status.getHoldId());
+            if (parked != null) {
+                parked.forEach(result -> result.setResult(status));
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, BookingStatusDTO status) {
+        if (status == null) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON));
+            if (status.getStatus().isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            emitter.completeWithError(e);
+        }
+    }
+
+    private BookingStatusDTO parse(String json) {
+        try {
+            return objectMapper.readValue(json, BookingStatusDTO.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable booking status: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> void remove(Map<String, Set<T>> registry, String holdId, T entry) {
+        registry.computeIfPresent(holdId, (k, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.exception.InvalidCredentialsException;
+import com.movie.bookMyShow.exception.TooManyRequestsException;
+import com.movie.bookMyShow.service.notification.TicketNotification;
+import com.movie.bookMyShow.service.notification.TicketNotificationSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Proves that a caller owns a phone number before we show anything keyed by it.
+ * A six-digit code is sent to the number through a notification sender and only its hash is kept
+ * in Redis. Codes expire, allow a few guesses, and can only be re-sent after a cool-down.
+ */
+@Slf4j
+@Service
+public class CustomerOtpService {
+    private static final String CODE_PREFIX = "otp:customer:code:";
+    private static final String ATTEMPTS_PREFIX = "otp:customer:attempts:";
+    private static final String SENT_PREFIX = "otp:customer:sent:";
+    // Channels that only write to this machine's log or disk; they never reach the customer
+    private static final Set<String> LOCAL_CHANNELS = Set.of("log", "file");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TicketNotificationSender sender;
+    private final boolean maskCode;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${customer.otp.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${customer.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${customer.otp.resend-seconds:60}")
+    private long resendSeconds;
+
+    public CustomerOtpService(RedisTemplate<String, String> redisTemplate, List<TicketNotificationSender> senders,
+                              @Value("${customer.otp.channel:log}") String channel,
+                              @Value("${customer.otp.local-channel-plain-codes:false}") boolean localChannelPlainCodes) {
+        this.redisTemplate = redisTemplate;
+        this.sender = senders.stream()
+                .filter(candidate -> candidate.channel().equals(channel))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No TicketNotificationSender for channel " + channel));
+        // A code written to a log file is readable by anyone with log access, so it is masked unless
+        // a developer explicitly opts in on their own machine
+        this.maskCode = LOCAL_CHANNELS.contains(channel) && !localChannelPlainCodes;
+        if (maskCode) {
+            log.warn("OTP channel '{}' does not reach customers; codes are masked and history verification will not work", channel);
+        }
+    }
+
+    public void sendCode(String phoneNumber) {
+        Boolean allowed = redisTemplate.opsForValue()
+                .setIfAbsent(SENT_PREFIX + phoneNumber, "1", Duration.ofSeconds(resendSeconds));
+        if (!Boolean.TRUE.equals(allowed)) {
+            throw new TooManyRequestsException("A code was sent recently; try again in a minute");
+        }
+
+        String code = String.format("%06d", random.nextInt(1_000_000));
+        redisTemplate.opsForValue().set(CODE_PREFIX + phoneNumber, hash(phoneNumber, code), Duration.ofSeconds(ttlSeconds));
+        redisTemplate.delete(ATTEMPTS_PREFIX + phoneNumber);
+        try {
+            sender.send(new TicketNotification(null, phoneNumber, "Your verification code",
+                    "Your code is " + (maskCode ? "******" : code) + ". It expires in " + ttlSeconds / 60 + " minutes."));
+        } catch (Exception e) {
+            // Let the customer ask again right away instead of waiting out the cool-down
+            redisTemplate.delete(SENT_PREFIX + phoneNumber);
+            throw new IllegalStateException("Could not send verification code", e);
+        }
+    }
+
+    // Consumes the code on success, so it cannot be replayed
+    public void verify(String phoneNumber, String code) {
+        String key = CODE_PREFIX + phoneNumber;
+        String expected = redisTemplate.opsForValue().get(key);
+        if (expected == null || code == null) {
+            throw new InvalidCredentialsException("Invalid or expired code");
+        }
+        Long attempts = redisTemplate.opsForValue().increment(ATTEMPTS_PREFIX + phoneNumber);
+        redisTemplate.expire(ATTEMPTS_PREFIX + phoneNumber, Duration.ofSeconds(ttlSeconds));
+        if (attempts != null && attempts > maxAttempts) {
+            redisTemplate.delete(key);
+            throw new InvalidCredentialsException("Too many attempts; request a new code");
+        }
+        if (!MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                hash(phoneNumber, code.trim()).getBytes(StandardCharsets.UTF_8))) {
+            throw new InvalidCredentialsException("Invalid or expired code");
+        }
+        redisTemplate.delete(List.of(key, ATTEMPTS_PREFIX + phoneNumber));
+    }
+
+    private String hash(String phoneNumber, String code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((phoneNumber + ":" + code).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.movie.bookMyShow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.bookMyShow.dto.BookingRequest;
+import com.movie.bookMyShow.dto.BookingResponse;
+import com.movie.bookMyShow.exception.IdempotencyConflictException;
+import com.movie.bookMyShow.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code POST /booking/seats} safe to retry with an {@code Idempotency-Key} header.
+ * The key is claimed in Redis with SETNX; the first request runs, later ones get its stored
+ * {@link BookingResponse}. Duplicates on the same node wait on the in-flight future, duplicates on
+ * other nodes poll Redis until the result appears. A key reused for a different request is rejected.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    private static final String KEY_PREFIX = "idem:booking:";
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String DONE = "DONE";
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<BookingResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${booking.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${booking.idempotency.in-flight-ttl-seconds:60}")
+    private long inFlightTtlSeconds; // Claim expiry if the owning node dies mid-request
+
+    @Value("${booking.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    public IdempotencyService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public BookingResponse execute(String idempotencyKey, BookingRequest request, Supplier<BookingResponse> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = KEY_PREFIX + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        // Same node: piggyback on the identical request that is already running
+        String localKey = key + "|" + fingerprint;
+        CompletableFuture<BookingResponse> mine = new CompletableFuture<>();
+        CompletableFuture<BookingResponse> running = inFlight.putIfAbsent(localKey, mine);
+        if (running != null) {
+            return awaitLocal(running);
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + waitMs;
+            // The claim carries a token of its own, so releasing it can tell it apart from a later claim
+            String claim = envelope(IN_PROGRESS, fingerprint, Map.of("claim", UUID.randomUUID().toString()));
+            while (true) {
+                Boolean claimed = redisTemplate.opsForValue()
+                        .setIfAbsent(key, claim, Duration.ofSeconds(inFlightTtlSeconds));
+                if (Boolean.TRUE.equals(claimed)) {
+                    BookingResponse response = runAndStore(key, claim, fingerprint, action);
+                    mine.complete(response);
+                    return response;
+                }
+
+                Map<String, String> stored = read(key);
+                if (stored != null) {
+                    if (!fingerprint.equals(stored.get("fingerprint"))) {
+                        throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+                    }
+                    if (DONE.equals(stored.get("state"))) {
+                        log.info("Replaying stored booking response for idempotency key {}", idempotencyKey);
+                        BookingResponse response = objectMapper.readValue(stored.get("response"), BookingResponse.class);
+                        mine.complete(response);
+                        return response;
+                    }
+                }
+                // Another node is still working on it (or just released the claim); wait and look again
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            mine.completeExceptionally(e);
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        } catch (JsonProcessingException e) {
+            mine.completeExceptionally(e);
+            throw new IllegalStateException("Stored booking response is unreadable", e);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    private BookingResponse runAndStore(String key, String claim, String fingerprint, Supplier<BookingResponse> action)
+            throws JsonProcessingException {
+        BookingResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Failed attempts are not cached; release the key so the client can retry. If our claim
+            // expired while the action ran, the key may now belong to another request: leave it.
+            if (!RedisScripts.deleteIfEquals(redisTemplate, key, claim)) {
+                log.warn("Idempotency claim on {} expired before the request failed; not releasing it", key);
+            }
+            throw e;
+        }
+        redisTemplate.opsForValue().set(key,
+                envelope(DONE, fingerprint, Map.of("response", objectMapper.writeValueAsString(response))),
+                Duration.ofHours(ttlHours));
+        return response;
+    }
+
+    private BookingResponse awaitLocal(CompletableFuture<BookingResponse> running) {
+        try {
+            return running.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        } catch (Exception e) {
+            // The original failed; the duplicate sees the same failure
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private String envelope(String state, String fingerprint, Map<String, String> extra) {
+        try {
+            Map<String, String> value = new HashMap<>(extra);
+            value.put("state", state);
+            value.put("fingerprint", fingerprint);
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotency record", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> read(String key) throws JsonProcessingException {
+        String value = redisTemplate.opsForValue().get(key);
+        return value == null ? null : objectMapper.readValue(value, Map.class);
+    }
+
+    // Same key must mean same booking: show, seats, payment method and phone number
+    private String fingerprint(BookingRequest request) {
+        String canonical = request.getShowId() + "|"
+                + request.getSeatIds().stream().sorted().toList() + "|"
+                + request.getPaymentMethod() + "|"
+                + request.getPhoneNumber();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
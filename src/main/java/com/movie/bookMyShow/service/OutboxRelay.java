@@ -0,0 +1,132 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.model.OutboxEvent;
+import com.movie.bookMyShow.repo.OutboxEventRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code outbox_event} to Kafka. Delivery is at-least-once: rows are deleted only after the
+ * broker acknowledged them, in the same transaction that locked them.
+ * Events sharing a key are sent one after another, and a failed event holds back the rest of its key
+ * until it is retried, so consumers see each key's messages in insert order.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final OutboxService outboxService;
+    private final KafkaTemplate<String, TicketDTO> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-seconds:10}")
+    private long sendTimeoutSeconds;
+
+    public OutboxRelay(OutboxEventRepo outboxEventRepo, OutboxService outboxService,
+                       KafkaTemplate<String, TicketDTO> kafkaTemplate, TransactionTemplate transactionTemplate) {
+        this.outboxEventRepo = outboxEventRepo;
+        this.outboxService = outboxService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            // Keep draining while full batches come back
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> relayBatch());
+            } while (sent != null && sent >= batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay run failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepo.lockDueBatch(LocalDateTime.now(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byKey.computeIfAbsent(event.getMessageKey(), k -> new ArrayList<>()).add(event);
+        }
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        Set<String> blockedKeys = new HashSet<>();
+        // Round i sends the i-th event of every key that has not failed yet
+        for (int round = 0; ; round++) {
+            Map<OutboxEvent, CompletableFuture<?>> inFlight = new LinkedHashMap<>();
+            for (Map.Entry<String, List<OutboxEvent>> entry : byKey.entrySet()) {
+                if (round < entry.getValue().size() && !blockedKeys.contains(entry.getKey())) {
+                    OutboxEvent event = entry.getValue().get(round);
+                    inFlight.put(event, send(event));
+                }
+            }
+            if (inFlight.isEmpty()) {
+                break;
+            }
+            for (Map.Entry<OutboxEvent, CompletableFuture<?>> entry : inFlight.entrySet()) {
+                OutboxEvent event = entry.getKey();
+                try {
+                    entry.getValue().get(sendTimeoutSeconds, TimeUnit.SECONDS);
+                    delivered.add(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    markFailed(event, "Interrupted while waiting for broker");
+                    blockedKeys.add(event.getMessageKey());
+                } catch (Exception e) {
+                    markFailed(event, e.getMessage());
+                    blockedKeys.add(event.getMessageKey());
+                }
+            }
+        }
+
+        outboxEventRepo.deleteAllInBatch(delivered);
+        if (delivered.size() < batch.size()) {
+            log.warn("Outbox relay delivered {} of {} events; the rest will be retried", delivered.size(), batch.size());
+        } else {
+            log.info("Outbox relay delivered {} events", delivered.size());
+        }
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), outboxService.readTicket(event));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void markFailed(OutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 6));
+        event.setAttempts(attempts);
+        event.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+        event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+        log.warn("Outbox event {} for key {} failed (attempt {}): {}", event.getId(), event.getMessageKey(), attempts, error);
+    }
+}
@@ -0,0 +1,57 @@
+package com.movie.bookMyShow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.model.OutboxEvent;
+import com.movie.bookMyShow.repo.OutboxEventRepo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+public class OutboxService {
+    public static final String BOOK_MOVIE_TOPIC = "book_movie";
+
+    private final OutboxEventRepo outboxEventRepo;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepo outboxEventRepo, ObjectMapper objectMapper) {
+        this.outboxEventRepo = outboxEventRepo;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Queues a ticket for the {@code book_movie} topic. Must run inside the transaction that
+     * stores the booking, so the message exists if and only if the booking does.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueTicket(String holdId, TicketDTO ticket) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepo.save(OutboxEvent.builder()
+                .topic(BOOK_MOVIE_TOPIC)
+                .messageKey(holdId)
+                .payload(toJson(ticket))
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    public TicketDTO readTicket(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), TicketDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload for event " + event.getId(), e);
+        }
+    }
+
+    private String toJson(TicketDTO ticket) {
+        try {
+            return objectMapper.writeValueAsString(ticket);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ticket", e);
+        }
+    }
+}
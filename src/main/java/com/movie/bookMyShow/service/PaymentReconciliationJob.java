@@ -0,0 +1,158 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.enums.PaymentState;
+import com.movie.bookMyShow.repo.PaymentRecordRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodic sweep over payment records the normal flow no longer drives (stale legacy PENDING rows and
+ * reversals that ran out of attempts). Pages through them by id and reconciles each against its
+ * gateway through {@link PaymentService#reconcile}, with at most {@code payment.reconcile.concurrency}
+ * gateway calls in flight. After each run it measures drift between bookings and payments.
+ */
+@Slf4j
+@Service
+public class PaymentReconciliationJob {
+    private final PaymentRecordRepo paymentRecordRepo;
+    private final PaymentService paymentService;
+    private final Executor paymentExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>(); // Final state per record, totals since startup
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Value("${payment.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reconcile.stale-after-minutes:30}")
+    private long staleAfterMinutes;
+
+    @Value("${payment.reconcile.page-size:200}")
+    private int pageSize;
+
+    @Value("${payment.reconcile.concurrency:8}")
+    private int concurrency;
+
+    @Value("${payment.reconcile.drift-window-hours:24}")
+    private long driftWindowHours;
+
+    public PaymentReconciliationJob(PaymentRecordRepo paymentRecordRepo, PaymentService paymentService,
+                                    @Qualifier("paymentExecutor") Executor paymentExecutor) {
+        this.paymentRecordRepo = paymentRecordRepo;
+        this.paymentService = paymentService;
+        this.paymentExecutor = paymentExecutor;
+    }
+
+    // Only starts the sweep; it runs on the payment executor so gateway calls never hold up the shared scheduler thread
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:600000}",
+            initialDelayString = "${payment.reconcile.initial-delay-ms:60000}")
+    public void trigger() {
+        if (enabled && running.compareAndSet(false, true)) {
+            try {
+                paymentExecutor.execute(this::sweep);
+            } catch (RuntimeException e) {
+                running.set(false);
+                log.warn("Could not start payment reconciliation: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void sweep() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime staleBefore = started.minusMinutes(staleAfterMinutes);
+        Map<String, Long> runOutcomes = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(concurrency);
+        long afterId = 0;
+        int scanned = 0;
+        try {
+            while (true) {
+                List<Long> page = paymentRecordRepo.findReconcilable(afterId, staleBefore, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                List<CompletableFuture<Void>> inFlight = new ArrayList<>(page.size());
+                for (Long recordId : page) {
+                    permits.acquire();
+                    inFlight.add(CompletableFuture.supplyAsync(() -> paymentService.reconcile(recordId), paymentExecutor)
+                            .handle((state, ex) -> {
+                                permits.release();
+                                String outcome = ex != null ? "error" : state == null ? "skipped" : state.name().toLowerCase();
+                                if (ex != null) {
+                                    log.error("Reconciling payment record {} failed: {}", recordId, ex.getMessage());
+                                }
+                                runOutcomes.merge(outcome, 1L, Long::sum);
+                                outcomes.computeIfAbsent(outcome, k -> new AtomicLong()).incrementAndGet();
+                                return null;
+                            }));
+                }
+                CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).join();
+                scanned += page.size();
+                afterId = page.get(page.size() - 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Payment reconciliation stopped after {} records: {}", scanned, e.getMessage(), e);
+        } finally {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("startedAt", started.toString());
+            run.put("durationMs", Duration.between(started, LocalDateTime.now()).toMillis());
+            run.put("scanned", scanned);
+            run.put("outcomes", runOutcomes);
+            run.put("drift", measureDrift(staleBefore));
+            lastRun = run;
+            running.set(false);
+            if (scanned > 0) {
+                log.info("Payment reconciliation: {}", run);
+            }
+        }
+    }
+
+    private Map<String, Object> measureDrift(LocalDateTime settledBefore) {
+        Map<String, Object> drift = new LinkedHashMap<>();
+        try {
+            LocalDateTime since = settledBefore.minusHours(driftWindowHours);
+            drift.put("paidWithoutBooking", paymentRecordRepo.countPaidWithoutBooking(since, settledBefore));
+            drift.put("bookedWithoutPayment", paymentRecordRepo.countBookedWithoutPayment(since, settledBefore));
+            drift.put("stalePending", paymentRecordRepo.countPendingBefore(settledBefore));
+            drift.put("unreverted", paymentRecordRepo.countUnreverted());
+            drift.put("refundRequired", paymentRecordRepo.countByState(PaymentState.REFUND_REQUIRED));
+            if ((long) drift.get("paidWithoutBooking") > 0 || (long) drift.get("bookedWithoutPayment") > 0) {
+                log.warn("Bookings and payments have drifted apart: {}", drift);
+            }
+        } catch (Exception e) {
+            log.error("Failed to measure payment drift: {}", e.getMessage());
+            drift.put("error", e.getMessage());
+        }
+        return drift;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        Map<String, Long> totals = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> totals.put(outcome, count.get()));
+        stats.put("totals", totals);
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+}
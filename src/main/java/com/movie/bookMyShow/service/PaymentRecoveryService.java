@@ -0,0 +1,70 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.enums.PaymentState;
+import com.movie.bookMyShow.repo.PaymentRecordRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fires the durable timers of payment records: anything whose {@code nextCheckAt} has passed is handed
+ * to {@link PaymentService#resume}. That covers payment deadlines, retries of failed gateway calls and
+ * reversals, and every checkout that was in flight when a node went down.
+ */
+@Slf4j
+@Service
+public class PaymentRecoveryService {
+    private final PaymentRecordRepo paymentRecordRepo;
+    private final PaymentService paymentService;
+    private final Executor paymentExecutor;
+
+    @Value("${payment.recovery.batch-size:100}")
+    private int batchSize;
+
+    public PaymentRecoveryService(PaymentRecordRepo paymentRecordRepo, PaymentService paymentService,
+                                  @Qualifier("paymentExecutor") Executor paymentExecutor) {
+        this.paymentRecordRepo = paymentRecordRepo;
+        this.paymentService = paymentService;
+        this.paymentExecutor = paymentExecutor;
+    }
+
+    // In-flight futures did not survive the restart: check every unfinished payment now instead of at its deadline.
+    // Records still owned by a live node are safe to check too; the lease decides who acts.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeAfterStartup() {
+        int expedited = paymentRecordRepo.expedite(List.of(PaymentState.INITIATED, PaymentState.AWAITING), LocalDateTime.now());
+        if (expedited > 0) {
+            log.info("Resuming {} unfinished payments after startup", expedited);
+        }
+        resumeDue();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.recovery.interval-ms:5000}")
+    public void resumeDue() {
+        List<Long> due;
+        try {
+            due = paymentRecordRepo.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.error("Failed to load due payment records: {}", e.getMessage());
+            return;
+        }
+        for (Long recordId : due) {
+            try {
+                paymentExecutor.execute(() -> paymentService.resume(recordId));
+            } catch (RejectedExecutionException e) {
+                log.warn("Payment executor is saturated; {} due records wait for the next round", due.size());
+                return;
+            }
+        }
+    }
+}
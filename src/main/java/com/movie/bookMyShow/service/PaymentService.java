@@ -3,158 +3,377 @@ package com.movie.bookMyShow.service;
 import com.movie.bookMyShow.dto.BookingRequest;
 import com.movie.bookMyShow.dto.SeatDTO;
 import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.enums.BookingProgress;
 import com.movie.bookMyShow.enums.BookingStatus;
+import com.movie.bookMyShow.enums.PaymentState;
 import com.movie.bookMyShow.enums.PaymentStatus;
-import com.movie.bookMyShow.enums.SeatStatus;
 import com.movie.bookMyShow.exception.PaymentProcessingException;
+import com.movie.bookMyShow.exception.SeatAlreadyBookedException;
 import com.movie.bookMyShow.exception.SeatHoldException;
 import com.movie.bookMyShow.model.Booking;
 import com.movie.bookMyShow.model.PaymentRecord;
 import com.movie.bookMyShow.model.Seat;
 import com.movie.bookMyShow.model.Show;
-import com.movie.bookMyShow.model.ShowSeat;
 import com.movie.bookMyShow.repo.BookingRepo;
 import com.movie.bookMyShow.repo.PaymentRecordRepo;
-import com.movie.bookMyShow.repo.ShowSeatRepo;
+import com.movie.bookMyShow.repo.SeatRepo;
+import com.movie.bookMyShow.repo.ShowRepo;
 import com.movie.bookMyShow.service.payment.PaymentGateway;
 import com.movie.bookMyShow.service.payment.PaymentGatewayFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Drives each payment through the persisted {@link PaymentState} machine of its {@link PaymentRecord}.
+ * The gateway's future is only a fast path: every waiting record also carries a timer
+ * ({@code nextCheckAt}) that {@link PaymentRecoveryService} acts on, so a restart loses no checkout.
+ * Whoever works on a record first takes a short lease on it; the {@code @Version} column makes
+ * that claim safe across threads and nodes.
+ */
 @Slf4j
 @Service
 public class PaymentService {
     private static final int PAYMENT_TIMEOUT_SECONDS = 300; // 5 minutes to match seat hold duration
     private static final int MAX_PAYMENT_RETRIES = 3;
-    private static final int CRYPTO_PAYMENT_TIMEOUT_SECONDS = 300; // 5 minutes for crypto
+    private static final int MAX_REVERT_ATTEMPTS = 5; // Per round; the reconciliation job starts the next one
+    private static final int MAX_REVERT_ROUNDS = 3; // Then the money is refunded by hand
+    private static final String STATE_CONSTRAINT = "payment_records_state_check";
+    private static final long LEASE_SECONDS = 60; // Longer than any single gateway call
+    private static final long BASE_BACKOFF_SECONDS = 5;
+    private static final long MAX_BACKOFF_SECONDS = 60;
+    private static final int MAX_RECOVERY_FAILURES = 10; // Consecutive; roughly eight minutes of backoff
 
     @Autowired
     private SeatHoldService seatHoldService;
     @Autowired
-    private ShowSeatRepo showSeatRepo;
-    @Autowired
     private BookingRepo bookingRepo;
     @Autowired
+    private ShowRepo showRepo;
+    @Autowired
+    private SeatRepo seatRepo;
+    @Autowired
     private PaymentGatewayFactory paymentGatewayFactory;
     @Autowired
-    private KafkaTemplate<String, TicketDTO> kafkaBookMovieTemplate;
+    private BookingConfirmationBatcher bookingConfirmationBatcher;
+    @Autowired
+    private BookingStatusNotifier bookingStatusNotifier;
+    @Autowired
+    private TicketSnapshotStore ticketSnapshotStore;
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private Executor paymentExecutor;
     @Autowired
     private PaymentRecordRepo paymentRecordRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /**
+     * Hibernate only writes the enum check constraint when it creates the table, so databases created
+     * before a PaymentState was added would reject it. Rewrites the constraint when a state is missing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void updateStateConstraint() {
+        try {
+            List<String> definitions = jdbcTemplate.queryForList(
+                    "SELECT pg_get_constraintdef(oid) FROM pg_constraint WHERE conname = ?", String.class, STATE_CONSTRAINT);
+            if (!definitions.isEmpty() && Arrays.stream(PaymentState.values()).allMatch(s -> definitions.get(0).contains("'" + s.name() + "'"))) {
+                return;
+            }
+            String states = Arrays.stream(PaymentState.values()).map(s -> "'" + s.name() + "'").collect(Collectors.joining(", "));
+            jdbcTemplate.execute("ALTER TABLE payment_records DROP CONSTRAINT IF EXISTS " + STATE_CONSTRAINT);
+            jdbcTemplate.execute("ALTER TABLE payment_records ADD CONSTRAINT " + STATE_CONSTRAINT
+                    + " CHECK (state IN (" + states + "))");
+            log.info("Updated {} to states {}", STATE_CONSTRAINT, states);
+        } catch (Exception e) {
+            log.error("Could not update {}: {}", STATE_CONSTRAINT, e.getMessage());
+        }
+    }
+
+    @Async("paymentExecutor")
     public void processPaymentAsync(String holdId, BookingRequest request, Show show, List<Seat> seats) {
         PaymentRecord paymentRecord = createInitialPaymentRecord(holdId, request);
-        
+
         try {
             // Validate hold first
             if (!seatHoldService.validateHold(request.getShowId(), holdId, request.getSeatIds())) {
                 throw new SeatHoldException("Hold validation failed for holdId: " + holdId);
             }
-
-            // Process payment with retry logic
-            processPaymentWithRetry(holdId, request, paymentRecord, show, seats);
+            startAttempt(paymentRecord, request, show, seats);
         } catch (Exception e) {
-            handleFailure(holdId, request, paymentRecord, show, seats, 
+            handleFailure(paymentRecord, request, show, seats,
                          "Initial validation failed: " + e.getMessage(), false);
         }
     }
 
-    private void processPaymentWithRetry(String holdId, BookingRequest request, PaymentRecord paymentRecord, 
-                                       Show show, List<Seat> seats) {
+    /**
+     * Runs the next step of a record whose timer has passed. Called by {@link PaymentRecoveryService};
+     * does nothing if another thread or node holds the record.
+     */
+    public void resume(Long recordId) {
+        PaymentRecord paymentRecord = claim(recordId, true);
+        if (paymentRecord == null) {
+            return;
+        }
+        BookingRequest request = toRequest(paymentRecord);
+        try {
+            switch (paymentRecord.getState()) {
+                case INITIATED -> retryStart(paymentRecord, request);
+                case AWAITING -> checkPaymentStatus(paymentRecord, request, null, null);
+                case FAILED -> retryRevert(paymentRecord, request);
+                default -> transition(paymentRecord, paymentRecord.getState(), paymentRecord.getErrorMessage());
+            }
+        } catch (Exception e) {
+            log.error("Resuming payment record {} for holdId: {} failed: {}",
+                    recordId, paymentRecord.getHoldId(), e.getMessage(), e);
+            deferAfterFailure(recordId, e);
+        }
+    }
+
+    /**
+     * A step that throws (show lookup, an open gateway circuit, the database) would otherwise leave the
+     * record due, to be retried the moment its lease runs out, forever. Pushes the timer back with
+     * backoff and, after {@link #MAX_RECOVERY_FAILURES} failures in a row, hands the record to a human.
+     */
+    private void deferAfterFailure(Long recordId, Exception cause) {
+        try {
+            PaymentRecord paymentRecord = paymentRecordRepo.findById(recordId).orElse(null);
+            if (paymentRecord == null || paymentRecord.getNextCheckAt() == null) {
+                return; // Settled before the failure
+            }
+            int failures = paymentRecord.getRecoveryFailures() + 1;
+            if (failures < MAX_RECOVERY_FAILURES) {
+                paymentRecord.setRecoveryFailures(failures);
+                paymentRecord.setNextCheckAt(LocalDateTime.now().plus(backoff(failures)));
+                paymentRecord.setLeaseUntil(null);
+                paymentRecordRepo.save(paymentRecord);
+                return;
+            }
+            String reason = "recovery failed " + failures + " times in a row: " + cause.getMessage();
+            if (paymentRecord.getState() == PaymentState.INITIATED) {
+                // The gateway was never reached, so no money moved
+                transition(paymentRecord, PaymentState.FAILED, "Payment abandoned: " + reason);
+                bookingStatusNotifier.publish(paymentRecord.getHoldId(), BookingProgress.FAILED, "Payment could not be processed");
+            } else {
+                // The customer may have paid and we can no longer tell; support settles it
+                requireManualRefund(paymentRecord, reason);
+            }
+        } catch (Exception e) {
+            // Nothing saved: the lease runs out and the next scheduler round tries again
+            log.error("Could not defer payment record {} after a failed recovery: {}", recordId, e.getMessage());
+        }
+    }
+
+    /**
+     * Drives a record the normal flow has given up on to a final state: a PENDING record written before
+     * the state machine existed, or a failed payment whose reversal ran out of attempts.
+     * Returns the state the record is left in, or null if it was skipped.
+     */
+    public PaymentState reconcile(Long recordId) {
+        PaymentRecord paymentRecord = paymentRecordRepo.findById(recordId).orElse(null);
+        if (paymentRecord == null || isLeased(paymentRecord)) {
+            return null;
+        }
+        paymentRecord = lease(paymentRecord);
+        if (paymentRecord == null) {
+            return null;
+        }
+        BookingRequest request = toRequest(paymentRecord);
+
+        if (paymentRecord.getState() == PaymentState.FAILED && Boolean.FALSE.equals(paymentRecord.getIsReverted())) {
+            // Back into the normal reversal loop for another round; attempts keep counting towards the cap
+            paymentRecord.setIsReverted(null);
+            retryRevert(paymentRecord, request);
+            return paymentRecord.getState();
+        }
+        if (paymentRecord.getState() != null || paymentRecord.getStatus() != PaymentStatus.PENDING) {
+            release(paymentRecord);
+            return null;
+        }
+
+        // Legacy PENDING record: the booking table and the gateway decide what happened
+        String holdId = paymentRecord.getHoldId();
+        if (isBooked(paymentRecord)) {
+            transition(paymentRecord, PaymentState.CONFIRMED, "Reconciled: booking exists");
+            return PaymentState.CONFIRMED;
+        }
+        String reference = paymentRecord.getPaymentReference() != null ? paymentRecord.getPaymentReference() : holdId;
+        if (request.getPaymentMethod().startsWith("ETH") && paymentRecord.getPaymentReference() == null) {
+            // Deposit address was never stored for these; nothing to check against
+            transition(paymentRecord, PaymentState.FAILED, "Reconciled: no booking, deposit address unknown");
+            return PaymentState.FAILED;
+        }
+        PaymentStatus status = paymentGatewayFactory.getPaymentGateway(request.getPaymentMethod())
+                .checkPaymentStatus(reference, paymentRecord.getAmount());
+        if (status != PaymentStatus.SUCCESS) {
+            transition(paymentRecord, PaymentState.FAILED, "Reconciled: payment not received (" + status + ")");
+            return PaymentState.FAILED;
+        }
+        // Paid but never booked; the hold is long gone, so give the money back
+        log.warn("Payment for holdId: {} succeeded without a booking, reverting", holdId);
+        paymentRecord.setState(PaymentState.FAILED);
+        paymentRecord.setStatus(PaymentStatus.FAILED);
+        paymentRecord.setErrorMessage("Reconciled: paid but not booked");
+        paymentRecord.setAttempts(0);
+        paymentRecord = paymentRecordRepo.save(paymentRecord);
+        retryRevert(paymentRecord, request);
+        return paymentRecord.getState();
+    }
+
+    private void retryStart(PaymentRecord paymentRecord, BookingRequest request) {
+        if (paymentRecord.getAttempts() >= MAX_PAYMENT_RETRIES || !LocalDateTime.now().isBefore(paymentRecord.getDeadline())) {
+            handleFailure(paymentRecord, request, null, null,
+                    "Payment processing failed after " + paymentRecord.getAttempts() + " attempts", false);
+            return;
+        }
+        startAttempt(paymentRecord, request, null, null);
+    }
+
+    private void startAttempt(PaymentRecord paymentRecord, BookingRequest request, Show show, List<Seat> seats) {
+        String holdId = paymentRecord.getHoldId();
         PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(request.getPaymentMethod());
-        final int maxRetries = MAX_PAYMENT_RETRIES;
-        final AtomicInteger retryCount = new AtomicInteger(0);
-        
-        // Use longer timeout for crypto payments
-        final int timeoutSeconds = request.getPaymentMethod().startsWith("ETH") ? 
-            CRYPTO_PAYMENT_TIMEOUT_SECONDS : PAYMENT_TIMEOUT_SECONDS;
-        
-        CompletableFuture.runAsync(() -> {
-            while (retryCount.get() < maxRetries) {
-                try {
-                    CompletableFuture<Boolean> paymentFuture = gateway.processPayment(request)
-                        .orTimeout(timeoutSeconds, TimeUnit.SECONDS);
-
-                    paymentFuture.thenAccept(paymentSuccess -> {
-                        try {
-                            log.info("Payment result received for holdId: {}, success: {}", holdId, paymentSuccess);
-                            updatePaymentRecord(paymentRecord, paymentSuccess ? PaymentStatus.SUCCESS : PaymentStatus.FAILED, 
-                                              paymentSuccess ? null : "Payment processing failed");
-
-                            if (paymentSuccess) {
-                                handleSuccessfulPayment(holdId, request, paymentRecord, show, seats);
-                            } else {
-                                handleFailure(holdId, request, paymentRecord, show, seats, 
-                                            "Payment processing failed", false);
-                            }
-                        } catch (Exception e) {
-                            handleFailure(holdId, request, paymentRecord, show, seats, 
-                                        "Payment result handling failed: " + e.getMessage(), true);
-                        }
-                    }).exceptionally(ex -> {
-                        if (ex instanceof java.util.concurrent.TimeoutException) {
-                            log.warn("Payment timeout for holdId: {}, retry count: {}", holdId, retryCount.get());
-                            if (retryCount.get() < maxRetries - 1) {
-                                retryCount.incrementAndGet();
-                                processPaymentWithRetry(holdId, request, paymentRecord, show, seats);
-                            } else {
-                                handleFailure(holdId, request, paymentRecord, show, seats, 
-                                            "Payment timeout after " + maxRetries + " retries", true);
-                            }
-                        } else {
-                            handleFailure(holdId, request, paymentRecord, show, seats, 
-                                        "Payment processing error: " + ex.getMessage(), true);
-                        }
-                        return null;
-                    });
-                    break; // Exit retry loop if payment initiated successfully
-                } catch (Exception e) {
-                    retryCount.incrementAndGet();
-                    if (retryCount.get() >= maxRetries) {
-                        handleFailure(holdId, request, paymentRecord, show, seats, 
-                                    "Payment processing failed after " + maxRetries + " retries: " + e.getMessage(), 
-                                    true);
-                        break;
-                    }
-                    log.warn("Payment attempt {} failed for holdId: {}, retrying...", retryCount.get(), holdId);
+        int attempt = paymentRecord.getAttempts() + 1;
+
+        // Written before the gateway is called: after a crash the record is checked, never charged twice
+        paymentRecord.setState(PaymentState.AWAITING);
+        paymentRecord.setAttempts(0);
+        paymentRecord.setNextCheckAt(paymentRecord.getDeadline()); // Durable timeout
+        paymentRecord.setLeaseUntil(null);
+        paymentRecord = paymentRecordRepo.save(paymentRecord);
+
+        CompletableFuture<Boolean> paymentFuture;
+        try {
+            paymentFuture = gateway.processPayment(request);
+        } catch (Exception e) {
+            log.warn("Payment attempt {} failed for holdId: {}, retrying...", attempt, holdId);
+            paymentRecord.setState(PaymentState.INITIATED);
+            paymentRecord.setAttempts(attempt);
+            paymentRecord.setNextCheckAt(LocalDateTime.now().plus(backoff(attempt)));
+            paymentRecordRepo.save(paymentRecord);
+            return;
+        }
+
+        Long recordId = paymentRecord.getId();
+        long remainingMs = Math.max(1, Duration.between(LocalDateTime.now(), paymentRecord.getDeadline()).toMillis());
+        paymentFuture.orTimeout(remainingMs, TimeUnit.MILLISECONDS)
+                .whenCompleteAsync((paymentSuccess, ex) ->
+                        onGatewayResult(recordId, paymentSuccess, ex, show, seats), paymentExecutor);
+    }
+
+    private void onGatewayResult(Long recordId, Boolean paymentSuccess, Throwable ex, Show show, List<Seat> seats) {
+        PaymentRecord paymentRecord = claim(recordId, false);
+        if (paymentRecord == null) {
+            return;
+        }
+        if (paymentRecord.getState() != PaymentState.AWAITING) {
+            // The recovery scheduler settled it first
+            release(paymentRecord);
+            return;
+        }
+        BookingRequest request = toRequest(paymentRecord);
+        String holdId = paymentRecord.getHoldId();
+        try {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof TimeoutException) {
+                    // Payment window closed; ask the gateway for the final word
+                    log.warn("Payment timeout for holdId: {}", holdId);
+                    checkPaymentStatus(paymentRecord, request, show, seats);
+                } else {
+                    handleFailure(paymentRecord, request, show, seats,
+                            "Payment processing error: " + cause.getMessage(), true);
                 }
+                return;
+            }
+
+            log.info("Payment result received for holdId: {}, success: {}", holdId, paymentSuccess);
+            if (Boolean.TRUE.equals(paymentSuccess)) {
+                handleSuccessfulPayment(paymentRecord, request, show, seats);
+            } else {
+                handleFailure(paymentRecord, request, show, seats, "Payment processing failed", false);
             }
-        });
+        } catch (Exception e) {
+            log.error("Payment result handling failed for holdId: {}: {}", holdId, e.getMessage(), e);
+        }
+    }
+
+    private void checkPaymentStatus(PaymentRecord paymentRecord, BookingRequest request, Show show, List<Seat> seats) {
+        PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(request.getPaymentMethod());
+        String reference = paymentRecord.getPaymentReference() != null
+                ? paymentRecord.getPaymentReference() : paymentRecord.getHoldId();
+        PaymentStatus status = gateway.checkPaymentStatus(reference, paymentRecord.getAmount());
+        log.info("Payment status for holdId: {} is {}", paymentRecord.getHoldId(), status);
+
+        if (status == PaymentStatus.SUCCESS) {
+            handleSuccessfulPayment(paymentRecord, request, show, seats);
+        } else if (LocalDateTime.now().isBefore(paymentRecord.getDeadline())) {
+            int attempt = paymentRecord.getAttempts() + 1;
+            paymentRecord.setAttempts(attempt);
+            paymentRecord.setNextCheckAt(min(LocalDateTime.now().plus(backoff(attempt)), paymentRecord.getDeadline()));
+            release(paymentRecord);
+        } else {
+            handleFailure(paymentRecord, request, show, seats,
+                    "Payment not received in time (last status " + status + ")", false);
+        }
     }
 
-    private void handleSuccessfulPayment(String holdId, BookingRequest request, PaymentRecord paymentRecord, 
-                                       Show show, List<Seat> seats) {
+    private void handleSuccessfulPayment(PaymentRecord paymentRecord, BookingRequest request, Show show, List<Seat> seats) {
+        String holdId = paymentRecord.getHoldId();
         try {
-            log.info("Creating booking for holdId: {}, showId: {}, seats: {}", 
-                    holdId, request.getShowId(), request.getSeatIds());
-            TicketDTO ticket = createBookingAndGetTicket(request, holdId, show, seats);
-            log.info("Ticket generated successfully for holdId: {}, ticket details: {}", holdId, ticket);
-            
-            sendTicketNotification(holdId, ticket);
+            // Inside the try: the money is taken, so a show that is gone must lead to a reversal
+            if (show == null) {
+                show = loadShow(paymentRecord);
+                seats = loadSeats(request);
+            }
+            // A crash after the booking committed leaves the record behind; don't book twice
+            if (isBooked(paymentRecord)) {
+                log.info("Booking for holdId: {} already exists, marking payment confirmed", holdId);
+            } else {
+                log.info("Creating booking for holdId: {}, showId: {}, seats: {}",
+                        holdId, request.getShowId(), request.getSeatIds());
+                TicketDTO ticket = createBookingAndGetTicket(paymentRecord, request, holdId, show, seats);
+                // The ticket message was queued in the booking transaction; OutboxRelay publishes it
+                log.info("Ticket generated successfully for holdId: {}, ticket details: {}", holdId, ticket);
+            }
         } catch (Exception e) {
-            handleFailure(holdId, request, paymentRecord, show, seats, 
+            handleFailure(paymentRecord, request, show, seats,
                         "Booking creation failed: " + e.getMessage(), true);
+            return;
         }
+        transition(paymentRecord, PaymentState.CONFIRMED, null);
+        bookingStatusNotifier.publish(holdId, BookingProgress.CONFIRMED, "Booking confirmed");
     }
 
-    private void handleFailure(String holdId, BookingRequest request, PaymentRecord paymentRecord, 
-                             Show show, List<Seat> seats, String errorMessage, boolean shouldRevertPayment) {
+    private void handleFailure(PaymentRecord paymentRecord, BookingRequest request, Show show, List<Seat> seats,
+                               String errorMessage, boolean shouldRevertPayment) {
+        String holdId = paymentRecord.getHoldId();
         log.error("Handling failure for holdId: {}, error: {}", holdId, errorMessage);
-        
+
         try {
+            if (show == null) {
+                show = loadShow(paymentRecord);
+                seats = loadSeats(request);
+            }
             // Create failed booking record
             Booking failedBooking = new Booking();
             failedBooking.setHoldId(holdId);
@@ -167,50 +386,89 @@ public class PaymentService {
 
             bookingRepo.save(failedBooking);
             log.info("Created failed booking record for holdId: {}", holdId);
-
-            // Release hold immediately since this transaction is already failed
-            seatHoldService.releaseHold(request.getShowId(), holdId, request.getSeatIds());
-            log.info("Released hold for holdId: {}", holdId);
-
-            // Revert payment if needed
-            if (shouldRevertPayment) {
-                log.info("Initiating payment reversal for holdId: {}", holdId);
-                revertPayment(request)
-                    .thenAccept(reversalSuccess -> {
-                        PaymentStatus status = reversalSuccess ? PaymentStatus.REVERTED : PaymentStatus.FAILED;
-                        String finalErrorMessage = reversalSuccess ? 
-                            "Payment successfully reverted" : 
-                            errorMessage + " (Payment reversal failed)";
-                        updatePaymentRecord(paymentRecord, status, finalErrorMessage);
-                    });
-            } else {
-                updatePaymentRecord(paymentRecord, PaymentStatus.FAILED, errorMessage);
-            }
         } catch (Exception e) {
             log.error("Error in failure handling for holdId: {}: {}", holdId, e.getMessage(), e);
-            updatePaymentRecord(paymentRecord, PaymentStatus.FAILED, 
-                              errorMessage + " (Error in failure handling: " + e.getMessage() + ")");
-            // Release hold in case of error
-            seatHoldService.releaseHold(request.getShowId(), holdId, request.getSeatIds());
         }
+
+        // Release hold immediately since this transaction is already failed
+        seatHoldService.releaseHold(request.getShowId(), effectiveHoldId(paymentRecord), request.getSeatIds());
+        log.info("Released hold for holdId: {}", holdId);
+
+        if (!shouldRevertPayment) {
+            transition(paymentRecord, PaymentState.FAILED, errorMessage);
+            bookingStatusNotifier.publish(holdId, BookingProgress.FAILED, errorMessage);
+            return;
+        }
+
+        // Money was taken: the reversal is scheduled on the record and first tried right away
+        paymentRecord.setState(PaymentState.FAILED);
+        paymentRecord.setStatus(PaymentStatus.FAILED);
+        paymentRecord.setErrorMessage(errorMessage);
+        paymentRecord.setAttempts(0);
+        paymentRecord.setNextCheckAt(LocalDateTime.now());
+        paymentRecord = paymentRecordRepo.save(paymentRecord);
+        retryRevert(paymentRecord, request);
     }
 
-    private CompletableFuture<Boolean> revertPayment(BookingRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                log.info("Initiating payment reversal for request: {}", request);
-                PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(request.getPaymentMethod());
-                boolean reversalSuccess = gateway.revertPayment(request);
-                log.info("Payment reversal completed for holdId: {}, success: {}", request.getHoldId(), reversalSuccess);
-                return reversalSuccess;
-            } catch (Exception e) {
-                log.error("Error during payment reversal: {}", e.getMessage());
-                return false;
-            }
-        });
+    private void retryRevert(PaymentRecord paymentRecord, BookingRequest request) {
+        String holdId = paymentRecord.getHoldId();
+        PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(request.getPaymentMethod());
+        if (!gateway.supportsRevert()) {
+            requireManualRefund(paymentRecord, request.getPaymentMethod() + " payments cannot be reverted automatically");
+            return;
+        }
+
+        boolean reversalSuccess;
+        try {
+            log.info("Initiating payment reversal for holdId: {}", holdId);
+            reversalSuccess = gateway.revertPayment(request);
+            log.info("Payment reversal completed for holdId: {}, success: {}", holdId, reversalSuccess);
+        } catch (Exception e) {
+            log.error("Error during payment reversal: {}", e.getMessage());
+            reversalSuccess = false;
+        }
+
+        if (reversalSuccess) {
+            paymentRecord.setIsReverted(true);
+            paymentRecord.setRevertedTime(LocalDateTime.now());
+            transition(paymentRecord, PaymentState.REVERTED, "Payment successfully reverted");
+            bookingStatusNotifier.publish(holdId, BookingProgress.REVERTED, "Payment successfully reverted");
+            return;
+        }
+
+        int attempt = paymentRecord.getAttempts() + 1;
+        paymentRecord.setAttempts(attempt);
+        if (attempt == 1) {
+            // Tell the client once; a later successful reversal publishes REVERTED
+            bookingStatusNotifier.publish(holdId, BookingProgress.FAILED, paymentRecord.getErrorMessage());
+        }
+        if (attempt >= MAX_REVERT_ATTEMPTS * MAX_REVERT_ROUNDS) {
+            requireManualRefund(paymentRecord, "reversal failed " + attempt + " times");
+        } else if (attempt % MAX_REVERT_ATTEMPTS == 0) {
+            // End of a round: left for PaymentReconciliationJob, which looks for isReverted = false
+            paymentRecord.setIsReverted(false);
+            transition(paymentRecord, PaymentState.FAILED, paymentRecord.getErrorMessage());
+        } else {
+            paymentRecord.setNextCheckAt(LocalDateTime.now().plus(backoff(attempt)));
+            release(paymentRecord);
+        }
+    }
+
+    // Terminal: the reconciliation job no longer picks the record up and support refunds the customer
+    private void requireManualRefund(PaymentRecord paymentRecord, String reason) {
+        String holdId = paymentRecord.getHoldId();
+        log.error("Manual refund required for holdId: {} ({} {}): {}",
+                holdId, paymentRecord.getAmount(), paymentRecord.getPaymentMethod(), reason);
+        String errorMessage = paymentRecord.getErrorMessage() + " (Manual refund required: " + reason + ")";
+        paymentRecord.setIsReverted(false);
+        transition(paymentRecord, PaymentState.REFUND_REQUIRED,
+                errorMessage.length() > 1000 ? errorMessage.substring(0, 1000) : errorMessage);
+        bookingStatusNotifier.publish(holdId, BookingProgress.FAILED,
+                "Payment could not be reverted automatically; it will be refunded manually");
     }
 
     private PaymentRecord createInitialPaymentRecord(String holdId, BookingRequest request) {
+        LocalDateTime now = LocalDateTime.now();
         PaymentRecord record = PaymentRecord.builder()
                 .holdId(holdId)
                 .showId(request.getShowId())
@@ -218,20 +476,100 @@ public class PaymentService {
                 .phoneNumber(request.getPhoneNumber())
                 .amount(request.getPrice())
                 .status(PaymentStatus.PENDING)
-                .attemptTime(LocalDateTime.now())
+                .attemptTime(now)
+                .state(PaymentState.INITIATED)
+                .seatIds(request.getSeatIds().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .paymentReference(request.getPublicKey())
+                .deadline(now.plusSeconds(PAYMENT_TIMEOUT_SECONDS))
+                .nextCheckAt(now.plusSeconds(LEASE_SECONDS)) // Picked up again if we die before calling the gateway
+                .leaseUntil(now.plusSeconds(LEASE_SECONDS))
                 .build();
         return paymentRecordRepo.save(record);
     }
 
-    private void updatePaymentRecord(PaymentRecord record, PaymentStatus status, String errorMessage) {
-        record.setStatus(status);
-        record.setErrorMessage(errorMessage);
-        record.setCompletionTime(LocalDateTime.now());
-        paymentRecordRepo.save(record);
+    // Takes the lease on a record, or returns null if someone else holds it or (when onlyIfDue) its timer hasn't passed
+    private PaymentRecord claim(Long recordId, boolean onlyIfDue) {
+        LocalDateTime now = LocalDateTime.now();
+        PaymentRecord paymentRecord = paymentRecordRepo.findById(recordId).orElse(null);
+        if (paymentRecord == null || paymentRecord.getState() == null || isLeased(paymentRecord)
+                || (onlyIfDue && (paymentRecord.getNextCheckAt() == null || paymentRecord.getNextCheckAt().isAfter(now)))) {
+            return null;
+        }
+        return lease(paymentRecord);
+    }
+
+    private boolean isLeased(PaymentRecord paymentRecord) {
+        return paymentRecord.getLeaseUntil() != null && paymentRecord.getLeaseUntil().isAfter(LocalDateTime.now());
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    private TicketDTO createBookingAndGetTicket(BookingRequest request, String holdId, Show show, List<Seat> seats) {
+    private PaymentRecord lease(PaymentRecord paymentRecord) {
+        paymentRecord.setLeaseUntil(LocalDateTime.now().plusSeconds(LEASE_SECONDS));
+        try {
+            return paymentRecordRepo.save(paymentRecord);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return null; // Claimed by another thread or node in between
+        }
+    }
+
+    private PaymentRecord release(PaymentRecord paymentRecord) {
+        paymentRecord.setLeaseUntil(null);
+        paymentRecord.setRecoveryFailures(0); // Every step that completes goes through here
+        return paymentRecordRepo.save(paymentRecord);
+    }
+
+    private PaymentRecord transition(PaymentRecord paymentRecord, PaymentState state, String errorMessage) {
+        paymentRecord.setState(state);
+        paymentRecord.setStatus(state.toPaymentStatus());
+        paymentRecord.setErrorMessage(errorMessage);
+        paymentRecord.setCompletionTime(LocalDateTime.now());
+        paymentRecord.setNextCheckAt(null);
+        return release(paymentRecord);
+    }
+
+    private BookingRequest toRequest(PaymentRecord paymentRecord) {
+        // Records from before the state machine have no seat ids
+        List<Long> seatIds = paymentRecord.getSeatIds() == null ? List.of()
+                : Arrays.stream(paymentRecord.getSeatIds().split(",")).map(Long::valueOf).toList();
+        BookingRequest request = new BookingRequest(paymentRecord.getShowId(), seatIds,
+                paymentRecord.getPaymentMethod(), paymentRecord.getPhoneNumber());
+        request.setHoldId(paymentRecord.getHoldId());
+        request.setPublicKey(paymentRecord.getPaymentReference());
+        request.setPrice(paymentRecord.getAmount());
+        return request;
+    }
+
+    private static String effectiveHoldId(PaymentRecord paymentRecord) {
+        return paymentRecord.getBookedHoldId() != null ? paymentRecord.getBookedHoldId() : paymentRecord.getHoldId();
+    }
+
+    // The booking carries the hold it was committed under, which is not the record's own after a re-hold
+    private boolean isBooked(PaymentRecord paymentRecord) {
+        return Stream.of(paymentRecord.getHoldId(), paymentRecord.getBookedHoldId())
+                .filter(Objects::nonNull)
+                .anyMatch(holdId -> bookingRepo.findByHoldId(holdId)
+                        .filter(b -> b.getStatus() == BookingStatus.CONFIRMED).isPresent());
+    }
+
+    private Show loadShow(PaymentRecord paymentRecord) {
+        return showRepo.findById(paymentRecord.getShowId())
+                .orElseThrow(() -> new IllegalStateException("Show " + paymentRecord.getShowId() + " no longer exists"));
+    }
+
+    private List<Seat> loadSeats(BookingRequest request) {
+        return seatRepo.findAllById(request.getSeatIds());
+    }
+
+    private static Duration backoff(int attempt) {
+        long seconds = BASE_BACKOFF_SECONDS << Math.min(attempt - 1, 10);
+        return Duration.ofSeconds(Math.min(seconds, MAX_BACKOFF_SECONDS));
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private TicketDTO createBookingAndGetTicket(PaymentRecord paymentRecord, BookingRequest request, String holdId,
+                                               Show show, List<Seat> seats) {
         log.info("Starting booking creation process for holdId: {}", holdId);
 
         // Validate the hold is still valid
@@ -242,78 +580,66 @@ public class PaymentService {
             String newHoldId = seatHoldService.holdSeats(request.getShowId(), request.getSeatIds());
             if (newHoldId != null) {
                 log.info("Successfully acquired new hold {}, proceeding with booking", newHoldId);
+                // Recorded before the booking commits, so a retry after a crash finds the booking under it
+                paymentRecordRepo.setBookedHoldId(paymentRecord.getId(), newHoldId);
+                paymentRecord.setBookedHoldId(newHoldId);
                 // Create booking with new hold
-                return createBookingAndGetTicket(request, newHoldId, show, seats);
+                return createBookingAndGetTicket(paymentRecord, request, newHoldId, show, seats);
             }
             
             
-            log.warn("Seats are no longer available, reverting payment");
-            revertPayment(request);
+            // The caller records the failure and schedules the reversal
+            log.warn("Seats are no longer available, payment will be reverted");
             throw new SeatHoldException("Seats are no longer available");
         }
 
-        log.info("Creating show seats for holdId: {}", holdId);
-        List<ShowSeat> showSeats = seats.stream()
-                .map(seat -> ShowSeat.builder()
-                        .show(show)
-                        .seat(seat)
-                        .status(SeatStatus.BOOKED)
-                        .build())
-                .collect(Collectors.toList());
+        TicketDTO ticket = new TicketDTO(
+                show.getShowId(),
+                show.getMovie().getMovieName(),
+                show.getTheatre().getTheatreName(),
+                show.getStartTime(),
+                seats.stream()
+                    .map(SeatDTO::fromSeat)
+                    .collect(Collectors.toList()),
+                request.getPhoneNumber(),
+                LocalDateTime.now()
+        );
+
+        Booking booking = new Booking();
+        booking.setHoldId(holdId);
+        booking.setShow(show);
+        booking.setSeats(seats);
+        booking.setPrice(request.getPrice());
+        booking.setPhoneNumber(request.getPhoneNumber());
+        booking.setBookingTime(ticket.getBookingTime());
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setTicketSnapshot(ticketSnapshotStore.toJson(ticket));
 
         try {
-            // Save show seats first
-            List<ShowSeat> savedSeats = showSeatRepo.saveAll(showSeats);
-            log.info("Successfully saved {} show seats for holdId: {}", savedSeats.size(), holdId);
-
-            // Create and save booking
-            Booking booking = new Booking();
-            booking.setHoldId(holdId);
-            booking.setShow(show);
-            booking.setSeats(seats);
-            booking.setPrice(request.getPrice());
-            booking.setPhoneNumber(request.getPhoneNumber());
-            booking.setBookingTime(LocalDateTime.now());
-            booking.setStatus(BookingStatus.CONFIRMED);
-
-            bookingRepo.save(booking);
+            // Show seats, booking and the ticket message are group-committed with other confirmations
+            bookingConfirmationBatcher.confirm(booking, ticket).join();
             log.info("Successfully created booking for holdId: {}", holdId);
+            ticketSnapshotStore.cache(holdId, booking.getTicketSnapshot());
 
             // Release the hold since booking is successful
             seatHoldService.releaseHold(request.getShowId(), holdId, request.getSeatIds());
-
-            return new TicketDTO(
-                    show.getShowId(),
-                    show.getMovie().getMovieName(),
-                    show.getTheatre().getTheatreName(),
-                    show.getStartTime(),
-                    seats.stream()
-                        .map(SeatDTO::fromSeat)
-                        .collect(Collectors.toList()),
-                    request.getPhoneNumber(),
-                    LocalDateTime.now()
-            );
+            return ticket;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SeatAlreadyBookedException lostSeats) {
+                // Another booking committed some of these seats first; the DB guard reports exactly which
+                log.error("Seats {} for holdId: {} were already booked", lostSeats.getSeatIds(), holdId);
+                throw lostSeats;
+            }
+            if (e.getCause() instanceof DataIntegrityViolationException) {
+                // Unique (show_id, seat_id) guard: another booking already owns one of these seats
+                log.error("Seats for holdId: {} were already booked: {}", holdId, e.getCause().getMessage());
+                throw new SeatAlreadyBookedException("One or more of the selected seats are already booked.");
+            }
+            log.error("Failed to save show seats or booking for holdId: {}: {}", holdId, e.getMessage(), e);
+            throw new PaymentProcessingException("Failed to create booking", e.getCause());
         } catch (Exception e) {
             log.error("Failed to save show seats or booking for holdId: {}: {}", holdId, e.getMessage(), e);
             throw new PaymentProcessingException("Failed to create booking", e);
         }
     }
-
-    private void sendTicketNotification(String holdId, TicketDTO ticket) {
-        try {
-            kafkaBookMovieTemplate.send("book_movie", holdId, ticket)
-                .whenComplete((result, ex) -> {
-                    if (ex != null) {
-                        log.error("Failed to send ticket notification for holdId: {}: {}", 
-                                 holdId, ex.getMessage());
-                    } else {
-                        log.info("Successfully sent ticket notification for holdId: {}", holdId);
-                    }
-                });
-        } catch (Exception e) {
-            log.error("Error sending ticket notification for holdId: {}: {}", 
-                     holdId, e.getMessage());
-            // Don't fail the booking if notification fails
-        }
-    }
 }
@@ -0,0 +1,114 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.enums.PaymentStatus;
+import com.movie.bookMyShow.model.PaymentRecord;
+import com.movie.bookMyShow.repo.PaymentRecordRepo;
+import com.movie.bookMyShow.service.payment.PaymentGateway;
+import com.movie.bookMyShow.service.payment.PaymentGatewayFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Answers payment status lookups without a gateway call per request.
+ * A reference that belongs to one of our payment records is answered from that record: the payment
+ * flow and recovery scheduler already watch it. Anything else goes to the gateway, with identical
+ * concurrent lookups sharing one call and results cached for a short TTL.
+ */
+@Slf4j
+@Service
+public class PaymentStatusCache {
+    private final PaymentRecordRepo paymentRecordRepo;
+    private final PaymentGatewayFactory paymentGatewayFactory;
+    private final Executor paymentExecutor;
+
+    private final Map<String, CachedStatus> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PaymentStatus>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${payment.status-cache.ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${payment.status-cache.final-ttl-ms:60000}")
+    private long finalTtlMs; // SUCCESS and REVERTED don't change back
+
+    @Value("${payment.status-cache.max-entries:10000}")
+    private int maxEntries;
+
+    public PaymentStatusCache(PaymentRecordRepo paymentRecordRepo, PaymentGatewayFactory paymentGatewayFactory,
+                              @Qualifier("paymentExecutor") Executor paymentExecutor) {
+        this.paymentRecordRepo = paymentRecordRepo;
+        this.paymentGatewayFactory = paymentGatewayFactory;
+        this.paymentExecutor = paymentExecutor;
+    }
+
+    /**
+     * @param requiredAmount may be null when the reference belongs to one of our payments
+     */
+    public CompletableFuture<PaymentStatus> getStatus(String paymentMethod, String reference, Double requiredAmount) {
+        PaymentGateway gateway = paymentGatewayFactory.getPaymentGateway(paymentMethod);
+
+        Optional<PaymentRecord> record = findRecord(reference);
+        if (record.isPresent() && record.get().getState() != null) {
+            // CONFIRMED -> SUCCESS, in flight -> PENDING, FAILED and REVERTED as they are
+            return CompletableFuture.completedFuture(record.get().getState().toPaymentStatus());
+        }
+
+        Double amount = requiredAmount != null ? requiredAmount : record.map(PaymentRecord::getAmount).orElse(null);
+        if (amount == null) {
+            throw new IllegalArgumentException("requiredAmount is required for unknown payment reference " + reference);
+        }
+
+        String key = paymentMethod + "|" + reference + "|" + amount;
+        CachedStatus cached = cache.get(key);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return CompletableFuture.completedFuture(cached.status);
+        }
+
+        // One gateway call per key at a time; everyone asking meanwhile gets the same future
+        CompletableFuture<PaymentStatus> created = new CompletableFuture<>();
+        CompletableFuture<PaymentStatus> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture.supplyAsync(() -> gateway.checkPaymentStatus(reference, amount), paymentExecutor)
+                .whenComplete((status, ex) -> {
+                    if (ex == null) {
+                        store(key, status);
+                    }
+                    inFlight.remove(key, created);
+                    if (ex != null) {
+                        created.completeExceptionally(ex);
+                    } else {
+                        created.complete(status);
+                    }
+                });
+        return created;
+    }
+
+    private Optional<PaymentRecord> findRecord(String reference) {
+        Optional<PaymentRecord> byReference = paymentRecordRepo.findFirstByPaymentReferenceOrderByIdDesc(reference);
+        return byReference.isPresent() ? byReference : paymentRecordRepo.findFirstByHoldIdOrderByIdDesc(reference);
+    }
+
+    private void store(String key, PaymentStatus status) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+            if (cache.size() >= maxEntries) {
+                return; // Still full of live entries; serve this one uncached
+            }
+        }
+        boolean settled = status == PaymentStatus.SUCCESS || status == PaymentStatus.REVERTED;
+        cache.put(key, new CachedStatus(status, now + (settled ? finalTtlMs : ttlMs)));
+    }
+
+    private record CachedStatus(PaymentStatus status, long expiresAt) {
+    }
+}
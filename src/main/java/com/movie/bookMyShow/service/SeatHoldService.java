@@ -1,9 +1,6 @@
 package com.movie.bookMyShow.service;
 
-import com.movie.bookMyShow.enums.SeatStatus;
-import com.movie.bookMyShow.exception.SeatAlreadyBookedException;
 import com.movie.bookMyShow.exception.SeatAlreadyHeldException;
-import com.movie.bookMyShow.repo.ShowSeatRepo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -23,22 +20,19 @@ public class SeatHoldService {
     private static final Duration HOLD_DURATION = Duration.ofMinutes(5);
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final ShowSeatRepo showSeatRepo;
 
-    public SeatHoldService(RedisTemplate<String, String> redisTemplate, ShowSeatRepo showSeatRepo) {
+    public SeatHoldService(RedisTemplate<String, String> redisTemplate) {
         this.redisTemplate = redisTemplate;
-        this.showSeatRepo = showSeatRepo;
     }
 
     /**
-     * Atomically holds seats for a given show.
-     * This method first checks for permanent bookings in the database, then attempts to acquire temporary holds in Redis.
-     * It replaces the need for a separate areSeatsAvailable() check, thus preventing race conditions.
+     * Atomically holds seats for a given show by acquiring temporary holds in Redis.
+     * Permanent bookings are not pre-checked here: the unique (show_id, seat_id) constraint rejects
+     * already-booked seats when the booking is confirmed, even if Redis lost its holds in a failover.
      *
      * @param showId  The ID of the show.
      * @param seatIds The list of seat IDs to hold.
      * @return A unique hold ID if successful.
-     * @throws SeatAlreadyBookedException if one or more seats are already permanently booked.
      * @throws SeatAlreadyHeldException   if one or more seats are already held by another user.
      * @throws RuntimeException           if a Redis connection issue occurs.
      */
@@ -52,13 +46,7 @@ public class SeatHoldService {
             throw new RuntimeException("Redis service is temporarily unavailable. Please try again later.");
         }
 
-        // 2. Check DB for permanent bookings first. This is a fast and critical check.
-        if (showSeatRepo.existsByShowIdAndSeatIdInAndStatus(showId, seatIds, SeatStatus.BOOKED)) {
-            log.warn("Hold failed: One or more seats for show {} are already permanently booked.", showId);
-            throw new SeatAlreadyBookedException("One or more of the selected seats are already booked.");
-        }
-
-        // 3. Atomically acquire temporary holds in Redis with retry logic
+        // 2. Atomically acquire temporary holds in Redis with retry logic
         List<String> acquiredKeys = new ArrayList<>();
         int maxRetries = 3;
         
@@ -0,0 +1,105 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.model.Seat;
+import com.movie.bookMyShow.repo.SeatRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only copy of each screen's seat layout, keyed by seat id.
+ * Seats are static once a screen is set up, so booking can validate seat ids here without
+ * touching (or locking) the seat table. Seat changes call {@link #evictAfterCommit}, which drops
+ * the layout on every node once the change is visible; a TTL bounds staleness if a message is lost.
+ */
+@Slf4j
+@Component
+public class SeatLayoutCache implements MessageListener {
+    public static final String CHANNEL = "seat-layout-evict";
+
+    private final SeatRepo seatRepo;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<Long, Layout> layouts = new ConcurrentHashMap<>();
+
+    @Value("${seat-layout.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    public SeatLayoutCache(SeatRepo seatRepo, RedisTemplate<String, String> redisTemplate,
+                           RedisMessageListenerContainer listenerContainer) {
+        this.seatRepo = seatRepo;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public Map<Long, Seat> seats(Long screenId) {
+        // Hits are a plain map read; only a miss or an expired layout takes the entry's lock and loads
+        Layout layout = layouts.get(screenId);
+        if (layout == null || layout.isExpired(ttlMs)) {
+            layout = layouts.compute(screenId, (id, cached) ->
+                    cached != null && !cached.isExpired(ttlMs) ? cached : new Layout(load(id), System.currentTimeMillis()));
+        }
+        return layout.seats;
+    }
+
+    private Map<Long, Seat> load(Long screenId) {
+        Map<Long, Seat> seats = seatRepo.findByScreen_ScreenId(screenId).stream()
+                .collect(Collectors.toUnmodifiableMap(Seat::getSeatId, Function.identity()));
+        log.info("Cached layout of {} seats for screen {}", seats.size(), screenId);
+        return seats;
+    }
+
+    /**
+     * Drops the screen's layout on all nodes after the current transaction commits.
+     * Evicting earlier would let a concurrent read cache the pre-commit layout again.
+     */
+    public void evictAfterCommit(Long screenId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictEverywhere(screenId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictEverywhere(screenId);
+            }
+        });
+    }
+
+    private void evictEverywhere(Long screenId) {
+        layouts.remove(screenId);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, screenId.toString());
+        } catch (Exception e) {
+            // Other nodes pick the change up when their copy expires
+            log.error("Failed to broadcast layout eviction for screen {}: {}", screenId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            layouts.remove(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring unreadable layout eviction message");
+        }
+    }
+
+    private record Layout(Map<Long, Seat> seats, long loadedAt) {
+        boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - loadedAt >= ttlMs;
+        }
+    }
+}
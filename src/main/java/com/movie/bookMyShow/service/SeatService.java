@@ -1,17 +1,49 @@
 package com.movie.bookMyShow.service;
 
 import com.movie.bookMyShow.dto.ApiResponse;
+import com.movie.bookMyShow.dto.SeatLayoutRequest;
+import com.movie.bookMyShow.dto.SeatRowBand;
+import com.movie.bookMyShow.model.Screen;
 import com.movie.bookMyShow.model.Seat;
+import com.movie.bookMyShow.repo.ScreenRepo;
 import com.movie.bookMyShow.repo.SeatRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
 @Service
 public class SeatService {
 
     @Autowired
     private SeatRepo seatRepo;
+
+    @Autowired
+    private ScreenRepo screenRepo;
+
+    @Autowired
+    private SeatLayoutCache seatLayoutCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    // Rows are A-Z, so this also bounds a whole layout (26 x max-seats-per-row seats)
+    @Value("${seat-layout.max-seats-per-row:100}")
+    private int maxSeatsPerRow;
+
     public ApiResponse addSeat(Seat seat) {
         try {
             Long screenId = seat.getScreen().getScreenId();
@@ -25,6 +57,7 @@ public class SeatService {
             }
 
             Seat savedSeat = seatRepo.save(seat);
+            seatLayoutCache.evictAfterCommit(screenId);
             return new ApiResponse(HttpStatus.CREATED.value(), "Seat added successfully: " + savedSeat.getSeatId());
 
         } catch (Exception e) {
@@ -32,4 +65,95 @@ public class SeatService {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Generates every seat of a screen from row bands and saves them in one transaction.
+     * Seats that already exist at a position are left untouched, so a layout can be re-applied safely.
+     */
+    @Transactional
+    public ApiResponse addSeatLayout(SeatLayoutRequest request) {
+        // Locked so two layout requests for a screen don't both see a position as free
+        Screen screen = screenRepo.findAllByIdForUpdate(List.of(request.getScreenId())).stream().findFirst().orElse(null);
+        if (screen == null) {
+            return new ApiResponse(HttpStatus.NOT_FOUND.value(), "Screen not found");
+        }
+
+        String invalid = validateBands(request.getBands());
+        if (invalid != null) {
+            return new ApiResponse(HttpStatus.BAD_REQUEST.value(), invalid);
+        }
+
+        // One query for every occupied position instead of one exists-check per seat
+        Set<String> existing = new HashSet<>();
+        for (Object[] position : seatRepo.findPositionsByScreenId(screen.getScreenId())) {
+            existing.add(positionKey((Character) position[0], (Long) position[1]));
+        }
+
+        List<Seat> seats = new ArrayList<>();
+        int skipped = 0;
+        for (SeatRowBand band : request.getBands()) {
+            Set<Long> gaps = band.getGaps() == null ? Set.of() : new HashSet<>(band.getGaps());
+            for (char row = band.getFromRow(); row <= band.getToRow(); row++) {
+                for (long seatNo = 1; seatNo <= band.getSeatsPerRow(); seatNo++) {
+                    if (gaps.contains(seatNo)) {
+                        continue;
+                    }
+                    if (existing.contains(positionKey(row, seatNo))) {
+                        skipped++;
+                        continue;
+                    }
+                    seats.add(new Seat(null, row, seatNo, screen, band.getCategory()));
+                }
+            }
+        }
+
+        // Flush and clear per JDBC batch so the persistence context stays small on large screens
+        for (int from = 0; from < seats.size(); from += batchSize) {
+            seatRepo.saveAll(seats.subList(from, Math.min(from + batchSize, seats.size())));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        seatLayoutCache.evictAfterCommit(screen.getScreenId());
+        log.info("Generated {} seats for screen {} ({} already existed)", seats.size(), screen.getScreenId(), skipped);
+
+        return new ApiResponse(HttpStatus.CREATED.value(),
+                "Seat layout added: " + seats.size() + " seats created, " + skipped + " already existed");
+    }
+
+    private String validateBands(List<SeatRowBand> bands) {
+        Set<Character> rows = new HashSet<>();
+        for (int i = 0; i < bands.size(); i++) {
+            SeatRowBand band = bands.get(i);
+            if (band == null) {
+                return "Band " + (i + 1) + " is empty";
+            }
+            // A missing row arrives as '\0'; rows are single letters A-Z
+            if (!isRowLetter(band.getFromRow()) || !isRowLetter(band.getToRow())) {
+                return "Band " + (i + 1) + " needs fromRow and toRow between A and Z";
+            }
+            if (band.getCategory() == null) {
+                return "Seat category is required for rows " + band.getFromRow() + "-" + band.getToRow();
+            }
+            if (band.getFromRow() > band.getToRow()) {
+                return "Invalid row range " + band.getFromRow() + "-" + band.getToRow();
+            }
+            if (band.getSeatsPerRow() <= 0 || band.getSeatsPerRow() > maxSeatsPerRow) {
+                return "Seats per row must be between 1 and " + maxSeatsPerRow
+                        + " for rows " + band.getFromRow() + "-" + band.getToRow();
+            }
+            for (char row = band.getFromRow(); row <= band.getToRow(); row++) {
+                if (!rows.add(row)) {
+                    return "Row " + row + " appears in more than one band";
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isRowLetter(char row) {
+        return row >= 'A' && row <= 'Z';
+    }
+
+    private String positionKey(char row, long seatNo) {
+        return row + ":" + seatNo;
+    }
+}
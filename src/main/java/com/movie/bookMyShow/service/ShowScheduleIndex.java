@@ -0,0 +1,139 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.ShowSlotDTO;
+import com.movie.bookMyShow.repo.ShowRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of scheduled shows, one timeline per screen.
+ * Timelines are loaded from the database the first time a screen is touched and are
+ * updated only after the inserting transaction commits, so they never contain rolled-back shows.
+ * The index is local to this node; the {@code show_no_overlap} exclusion constraint is the final guard.
+ */
+@Slf4j
+@Component
+public class ShowScheduleIndex {
+
+    private final ShowRepo showRepo;
+    private final Map<Long, ScreenTimeline> timelines = new ConcurrentHashMap<>();
+
+    public ShowScheduleIndex(ShowRepo showRepo) {
+        this.showRepo = showRepo;
+    }
+
+    public ScreenTimeline timeline(Long screenId) {
+        return timelines.computeIfAbsent(screenId, this::loadTimeline);
+    }
+
+    /**
+     * Reads the screen's shows straight from the database, bypassing the cache.
+     * Inside a transaction this also sees the caller's own uncommitted shows.
+     */
+    public ScreenTimeline loadTimeline(Long screenId) {
+        ScreenTimeline timeline = new ScreenTimeline();
+        List<ShowSlotDTO> slots = showRepo.findSlotsByScreenId(screenId);
+        slots.forEach(timeline::add);
+        log.info("Loaded {} shows into schedule index for screen {}", slots.size(), screenId);
+        return timeline;
+    }
+
+    /**
+     * Adds the show to the screen's timeline once the current transaction commits.
+     * Screens that were never loaded are skipped; they will read the show from the database on first use.
+     */
+    public void addAfterCommit(Long screenId, ShowSlotDTO slot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(screenId, slot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(screenId, slot);
+            }
+        });
+    }
+
+    private void add(Long screenId, ShowSlotDTO slot) {
+        ScreenTimeline timeline = timelines.get(screenId);
+        if (timeline != null) {
+            timeline.add(slot);
+        }
+    }
+
+    public void evict(Long screenId) {
+        timelines.remove(screenId);
+    }
+
+    public void evictAll() {
+        timelines.clear();
+    }
+
+    /**
+     * Shows of a single screen sorted by start time.
+     * Overlap uses the same inclusive bounds as the {@code show_no_overlap} constraint:
+     * a show ending at 12:00 conflicts with one starting at 12:00.
+     */
+    public static class ScreenTimeline {
+        private final NavigableMap<LocalDateTime, List<ShowSlotDTO>> byStart = new TreeMap<>();
+        // Any show overlapping [start, end] must begin no earlier than start minus the longest show.
+        private long longestMinutes;
+
+        public synchronized void add(ShowSlotDTO slot) {
+            if (slot.getStartTime() == null || slot.getEndTime() == null) {
+                return;
+            }
+            byStart.computeIfAbsent(slot.getStartTime(), k -> new ArrayList<>(1)).add(slot);
+            longestMinutes = Math.max(longestMinutes,
+                    Duration.between(slot.getStartTime(), slot.getEndTime()).toMinutes());
+        }
+
+        public synchronized List<ShowSlotDTO> overlapping(LocalDateTime start, LocalDateTime end) {
+            List<ShowSlotDTO> conflicts = new ArrayList<>();
+            LocalDateTime from = start.minusMinutes(longestMinutes);
+            for (List<ShowSlotDTO> slots : byStart.subMap(from, true, end, true).values()) {
+                for (ShowSlotDTO slot : slots) {
+                    if (!slot.getEndTime().isBefore(start)) {
+                        conflicts.add(slot);
+                    }
+                }
+            }
+            return conflicts;
+        }
+
+        public synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+            return overlapping(start, end).isEmpty();
+        }
+
+        /**
+         * Earliest start at or after {@code desired} where a show of the given length fits.
+         */
+        public synchronized LocalDateTime nextFreeStart(LocalDateTime desired, long durationMinutes) {
+            LocalDateTime candidate = desired;
+            List<ShowSlotDTO> conflicts = overlapping(candidate, candidate.plusMinutes(durationMinutes));
+            while (!conflicts.isEmpty()) {
+                LocalDateTime latestEnd = conflicts.get(0).getEndTime();
+                for (ShowSlotDTO slot : conflicts) {
+                    if (slot.getEndTime().isAfter(latestEnd)) {
+                        latestEnd = slot.getEndTime();
+                    }
+                }
+                candidate = latestEnd.plusMinutes(1);
+                conflicts = overlapping(candidate, candidate.plusMinutes(durationMinutes));
+            }
+            return candidate;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.BulkShowResponse;
+import com.movie.bookMyShow.dto.MovieTarget;
+import com.movie.bookMyShow.dto.ScheduleRequest;
+import com.movie.bookMyShow.dto.ScheduleResponse;
+import com.movie.bookMyShow.dto.ShowDTO;
+import com.movie.bookMyShow.dto.ShowRequest;
+import com.movie.bookMyShow.dto.ShowSlotDTO;
+import com.movie.bookMyShow.exception.ResourceNotFoundException;
+import com.movie.bookMyShow.model.Movie;
+import com.movie.bookMyShow.model.Screen;
+import com.movie.bookMyShow.repo.MovieRepo;
+import com.movie.bookMyShow.repo.ScreenRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a conflict-free timetable for a theatre's screens.
+ * Shows are handed out longest-first to the least loaded screen, then every screen packs its
+ * share into the earliest free gaps of its least busy days; whatever does not fit gets one pass
+ * over the other screens. Packing is cheap and runs on the calling thread, which also loads the
+ * screens' timelines (possibly from the database).
+ * Committing goes through {@link ShowService#addShows} so the usual validation still applies.
+ */
+@Slf4j
+@Service
+public class ShowSchedulerService {
+
+    @Autowired
+    private MovieRepo movieRepo;
+
+    @Autowired
+    private ScreenRepo screenRepo;
+
+    @Autowired
+    private ShowScheduleIndex showScheduleIndex;
+
+    @Autowired
+    private ShowService showService;
+
+    public ScheduleResponse schedule(ScheduleRequest request) {
+        validateRequest(request);
+
+        Map<Integer, Movie> movies = movieRepo.findAllById(request.getMovies().stream()
+                        .map(target -> (long) target.getMovieId())
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Movie::getMovieId, Function.identity()));
+
+        List<Screen> screens = screenRepo.findAllById(request.getScreenIds());
+        if (screens.size() != new HashSet<>(request.getScreenIds()).size()) {
+            throw new ResourceNotFoundException("One or more screens not found.");
+        }
+        for (Screen screen : screens) {
+            if (!screen.getTheatre().getTheatreId().equals(request.getTheatreId())) {
+                throw new IllegalArgumentException(
+                        "Screen " + screen.getScreenId() + " does not belong to Theatre " + request.getTheatreId());
+            }
+        }
+
+        List<Movie> units = new ArrayList<>();
+        for (MovieTarget target : request.getMovies()) {
+            Movie movie = movies.get(target.getMovieId());
+            if (movie == null) {
+                throw new ResourceNotFoundException("Movie not found with id: " + target.getMovieId());
+            }
+            for (int i = 0; i < target.getTargetShows(); i++) {
+                units.add(movie);
+            }
+        }
+        units.sort(Comparator.comparingInt(Movie::getDuration).reversed());
+
+        List<DayWindow> days = dayWindows(request);
+        int gapMinutes = Math.max(1, request.getCleaningBufferMinutes() + request.getAdBufferMinutes());
+
+        Map<Long, List<Movie>> assigned = assignToScreens(units, screens);
+        List<ScreenPlan> plans = screens.stream()
+                .map(screen -> {
+                    ScreenPlan plan = new ScreenPlan(screen.getScreenId(),
+                            showScheduleIndex.timeline(screen.getScreenId()), days, gapMinutes);
+                    assigned.get(screen.getScreenId()).forEach(plan::place);
+                    return plan;
+                })
+                .collect(Collectors.toList());
+
+        Map<Integer, Integer> unplaced = new HashMap<>();
+        for (ScreenPlan plan : plans) {
+            for (Movie movie : plan.leftovers) {
+                boolean placed = plans.stream()
+                        .filter(other -> other != plan)
+                        .sorted(Comparator.comparingLong(ScreenPlan::bookedMinutes))
+                        .anyMatch(other -> other.tryPlace(movie));
+                if (!placed) {
+                    unplaced.merge(movie.getMovieId(), 1, Integer::sum);
+                }
+            }
+        }
+
+        List<ShowDTO> shows = new ArrayList<>();
+        Map<Long, Double> screenUtilization = new LinkedHashMap<>();
+        long booked = 0;
+        long open = 0;
+        for (ScreenPlan plan : plans) {
+            for (Placement placement : plan.placements) {
+                shows.add(new ShowDTO(null, (long) placement.movie.getMovieId(), request.getTheatreId(), plan.screenId,
+                        placement.startTime, placement.startTime.plusMinutes(placement.movie.getDuration())));
+            }
+            screenUtilization.put(plan.screenId, ratio(plan.bookedMinutes(), plan.openMinutes()));
+            booked += plan.bookedMinutes();
+            open += plan.openMinutes();
+        }
+        shows.sort(Comparator.comparing(ShowDTO::getScreenId).thenComparing(ShowDTO::getStartTime));
+        double utilization = ratio(booked, open);
+        log.info("Scheduled {} shows over {} screens and {} days, utilization {}, unplaced {}",
+                shows.size(), screens.size(), days.size(), utilization, unplaced);
+
+        if (!request.isCommit() || shows.isEmpty()) {
+            return new ScheduleResponse(200, "Proposed " + shows.size() + " shows",
+                    shows, screenUtilization, utilization, unplaced, null);
+        }
+
+        List<ShowRequest> showRequests = shows.stream()
+                .map(show -> new ShowRequest(show.getMovieId().intValue(), show.getTheatreId().intValue(),
+                        show.getScreenId().intValue(), show.getStartTime()))
+                .collect(Collectors.toList());
+        BulkShowResponse committed = showService.addShows(showRequests);
+        return new ScheduleResponse(committed.getStatus(), committed.getMessage(),
+                shows, screenUtilization, utilization, unplaced, committed);
+    }
+
+    private void validateRequest(ScheduleRequest request) {
+        if (request.getToDate().isBefore(request.getFromDate())) {
+            throw new IllegalArgumentException("To date cannot be before from date");
+        }
+        if (request.getOpeningTime() == null || request.getClosingTime() == null
+                || request.getOpeningTime().equals(request.getClosingTime())) {
+            throw new IllegalArgumentException("Opening and closing times must differ");
+        }
+        if (request.getCleaningBufferMinutes() < 0 || request.getAdBufferMinutes() < 0) {
+            throw new IllegalArgumentException("Buffers cannot be negative");
+        }
+    }
+
+    private List<DayWindow> dayWindows(ScheduleRequest request) {
+        List<DayWindow> days = new ArrayList<>();
+        for (LocalDate date = request.getFromDate(); !date.isAfter(request.getToDate()); date = date.plusDays(1)) {
+            LocalDateTime open = date.atTime(request.getOpeningTime());
+            LocalDateTime close = request.getClosingTime().isAfter(request.getOpeningTime())
+                    ? date.atTime(request.getClosingTime())
+                    : date.plusDays(1).atTime(request.getClosingTime());
+            days.add(new DayWindow(open, close));
+        }
+        return days;
+    }
+
+    // Longest processing time first: each show goes to the screen with the fewest minutes so far
+    private Map<Long, List<Movie>> assignToScreens(List<Movie> units, List<Screen> screens) {
+        Map<Long, List<Movie>> assigned = new HashMap<>();
+        Map<Long, Long> load = new HashMap<>();
+        PriorityQueue<Long> byLoad = new PriorityQueue<>(Comparator.comparing(load::get));
+        for (Screen screen : screens) {
+            assigned.put(screen.getScreenId(), new ArrayList<>());
+            load.put(screen.getScreenId(), 0L);
+            byLoad.add(screen.getScreenId());
+        }
+        for (Movie movie : units) {
+            Long screenId = byLoad.poll();
+            assigned.get(screenId).add(movie);
+            load.merge(screenId, (long) movie.getDuration(), Long::sum);
+            byLoad.add(screenId);
+        }
+        return assigned;
+    }
+
+    private double ratio(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 1000.0 / whole) / 1000.0;
+    }
+
+    private static class DayWindow {
+        private final LocalDateTime open;
+        private final LocalDateTime close;
+
+        private DayWindow(LocalDateTime open, LocalDateTime close) {
+            this.open = open;
+            this.close = close;
+        }
+
+        private long minutes() {
+            return Duration.between(open, close).toMinutes();
+        }
+    }
+
+    private static class Placement {
+        private final Movie movie;
+        private final LocalDateTime startTime;
+
+        private Placement(Movie movie, LocalDateTime startTime) {
+            this.movie = movie;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * Working copy of one screen's timetable. Every slot, existing or new, is padded with the
+     * cleaning and ad buffer at its end, so placing into a free gap keeps the buffers intact.
+     */
+    private static class ScreenPlan {
+        private final Long screenId;
+        private final List<DayWindow> days;
+        private final int gapMinutes;
+        private final ShowScheduleIndex.ScreenTimeline timeline = new ShowScheduleIndex.ScreenTimeline();
+        private final long[] bookedPerDay;
+        private final List<Placement> placements = new ArrayList<>();
+        private final List<Movie> leftovers = new ArrayList<>();
+
+        private ScreenPlan(Long screenId, ShowScheduleIndex.ScreenTimeline existing, List<DayWindow> days, int gapMinutes) {
+            this.screenId = screenId;
+            this.days = days;
+            this.gapMinutes = gapMinutes;
+            this.bookedPerDay = new long[days.size()];
+
+            Set<ShowSlotDTO> seen = new HashSet<>();
+            for (int d = 0; d < days.size(); d++) {
+                DayWindow day = days.get(d);
+                for (ShowSlotDTO slot : existing.overlapping(day.open, day.close)) {
+                    if (seen.add(slot)) {
+                        timeline.add(new ShowSlotDTO(slot.getShowId(), slot.getStartTime(),
+                                slot.getEndTime().plusMinutes(gapMinutes)));
+                    }
+                    LocalDateTime from = slot.getStartTime().isAfter(day.open) ? slot.getStartTime() : day.open;
+                    LocalDateTime to = slot.getEndTime().isBefore(day.close) ? slot.getEndTime() : day.close;
+                    bookedPerDay[d] += Math.max(0, Duration.between(from, to).toMinutes());
+                }
+            }
+        }
+
+        private void place(Movie movie) {
+            if (!tryPlace(movie)) {
+                leftovers.add(movie);
+            }
+        }
+
+        // Earliest gap on the least busy day that can still take the show before closing
+        private boolean tryPlace(Movie movie) {
+            int duration = movie.getDuration();
+            List<Integer> order = IntStream.range(0, days.size()).boxed()
+                    .sorted(Comparator.comparingLong(d -> bookedPerDay[d]))
+                    .collect(Collectors.toList());
+            for (int d : order) {
+                DayWindow day = days.get(d);
+                LocalDateTime start = timeline.nextFreeStart(day.open, duration + gapMinutes);
+                if (!start.plusMinutes(duration).isAfter(day.close)) {
+                    timeline.add(new ShowSlotDTO(null, start, start.plusMinutes(duration + gapMinutes)));
+                    bookedPerDay[d] += duration;
+                    placements.add(new Placement(movie, start));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long bookedMinutes() {
+            long total = 0;
+            for (long minutes : bookedPerDay) {
+                total += minutes;
+            }
+            return total;
+        }
+
+        private long openMinutes() {
+            return days.stream().mapToLong(DayWindow::minutes).sum();
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package com.movie.bookMyShow.service;
 
 import com.movie.bookMyShow.dto.ApiResponse;
+import com.movie.bookMyShow.dto.BulkShowResponse;
+import com.movie.bookMyShow.dto.ShowConflictResponse;
 import com.movie.bookMyShow.dto.ShowDTO;
 import com.movie.bookMyShow.dto.ShowRequest;
+import com.movie.bookMyShow.dto.ShowRowResult;
+import com.movie.bookMyShow.dto.ShowSlotDTO;
 import com.movie.bookMyShow.dto.TheatreDTO;
 import com.movie.bookMyShow.exception.ResourceNotFoundException;
+import com.movie.bookMyShow.exception.ShowOverlapException;
 import com.movie.bookMyShow.model.*;
 import com.movie.bookMyShow.repo.*;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ShowService {
+    private static final String OVERLAP_CONSTRAINT = "show_no_overlap";
 
     @Autowired
     private MovieRepo movieRepo;
@@ -32,6 +49,36 @@ public class ShowService {
     @Autowired
     private ShowRepo showRepo;
 
+    @Autowired
+    private ShowScheduleIndex showScheduleIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Final overlap guard: no two shows of a screen may share a moment, with the same inclusive
+     * bounds as {@link ShowScheduleIndex.ScreenTimeline#overlapping}. Not expressible in JPA
+     * annotations, so it is added here once ddl-auto has created the table and before the web server
+     * accepts requests. The per-node index cannot stand in for it, so startup fails without it.
+     */
+    @PostConstruct
+    public void createOverlapConstraint() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, OVERLAP_CONSTRAINT);
+            if (existing != null && existing > 0) {
+                return;
+            }
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("ALTER TABLE show ADD CONSTRAINT " + OVERLAP_CONSTRAINT
+                    + " EXCLUDE USING gist (screen_id WITH =, tsrange(start_time, end_time, '[]') WITH &&)");
+            log.info("Created {} exclusion constraint on show", OVERLAP_CONSTRAINT);
+        } catch (Exception e) {
+            // Typically shows that already overlap; they have to be fixed before scheduling is safe
+            throw new IllegalStateException("Could not create " + OVERLAP_CONSTRAINT + " constraint on show", e);
+        }
+    }
+
     @Transactional
     public ApiResponse addShow(ShowRequest request) {
         validateShowRequest(request);
@@ -42,28 +89,155 @@ public class ShowService {
         Theatre theatre = theatreRepo.findById((long) request.getTheatreId())
                 .orElseThrow(() -> new ResourceNotFoundException("Theatre not found"));
 
-        Screen screen = screenRepo.findById((long) request.getScreenId())
+        // Same screen lock as addShows, so a single show never races a bulk request for the screen
+        Screen screen = screenRepo.findAllByIdForUpdate(List.of((long) request.getScreenId())).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Screen not found"));
 
         validateScreenTheatreRelationship(screen, theatre);
         validateShowTime(request.getStartTime());
 
+        // endTime is only filled in by @PrePersist, so compute it here for the overlap checks
+        LocalDateTime startTime = request.getStartTime();
+        LocalDateTime endTime = startTime.plusMinutes(movie.getDuration());
+
+        ShowScheduleIndex.ScreenTimeline timeline = showScheduleIndex.timeline(screen.getScreenId());
+        List<ShowSlotDTO> conflicts = timeline.overlapping(startTime, endTime);
+        if (!conflicts.isEmpty()) {
+            return new ShowConflictResponse(409, "Show is Overlapping", conflicts,
+                    timeline.nextFreeStart(startTime, movie.getDuration()));
+        }
+
         Show show = new Show();
         show.setMovie(movie);
         show.setTheatre(theatre);
         show.setScreen(screen);
-        show.setStartTime(request.getStartTime());
-        boolean isOverlapping = showRepo.existsOverlappingShow(theatre,screen,show.getStartTime(),show.getEndTime());
-        if(isOverlapping){
-            return new ApiResponse(409, "Show is Overlapping");
-        }
-
-        showRepo.save(show);
+        show.setStartTime(startTime);
+        // The index only knows what this node has seen; show_no_overlap rejects anything it missed
+        Show savedShow = insert(() -> showRepo.saveAndFlush(show), screen.getScreenId());
+        showScheduleIndex.addAfterCommit(screen.getScreenId(),
+                new ShowSlotDTO(savedShow.getShowId(), savedShow.getStartTime(), savedShow.getEndTime()));
 
         return new ApiResponse(201, "Show added successfully");
     }
     
 
+    /**
+     * Schedules many shows in one transaction.
+     * Movies and screens are fetched once for the whole batch, the screens with a row lock, and every
+     * row is checked against timelines read inside this transaction, so rows also see the shows
+     * accepted before them.
+     * Invalid rows are reported individually; the valid ones are inserted with JDBC batching.
+     */
+    @Transactional
+    public BulkShowResponse addShows(List<ShowRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one show is required");
+        }
+
+        Map<Long, Movie> movies = movieRepo.findAllById(requests.stream()
+                        .filter(Objects::nonNull)
+                        .map(request -> (long) request.getMovieId())
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(movie -> (long) movie.getMovieId(), Function.identity()));
+
+        // Locking the screens first makes the timelines loaded below authoritative until commit:
+        // any other bulk request for these screens waits here
+        Map<Long, Screen> screens = screenRepo.findAllByIdForUpdate(requests.stream()
+                        .filter(Objects::nonNull)
+                        .map(request -> (long) request.getScreenId())
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Screen::getScreenId, Function.identity()));
+
+        Map<Long, ShowScheduleIndex.ScreenTimeline> timelines = new HashMap<>();
+        List<ShowRowResult> rows = new ArrayList<>();
+        Map<Integer, Show> accepted = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ShowRequest request = requests.get(i);
+            try {
+                validateShowRequest(request);
+
+                Movie movie = movies.get((long) request.getMovieId());
+                if (movie == null) {
+                    throw new ResourceNotFoundException("Movie not found");
+                }
+                Screen screen = screens.get((long) request.getScreenId());
+                if (screen == null) {
+                    throw new ResourceNotFoundException("Screen not found");
+                }
+                validateScreenTheatreRelationship(screen, (long) request.getTheatreId());
+                validateShowTime(request.getStartTime());
+
+                LocalDateTime startTime = request.getStartTime();
+                LocalDateTime endTime = startTime.plusMinutes(movie.getDuration());
+
+                ShowScheduleIndex.ScreenTimeline timeline =
+                        timelines.computeIfAbsent(screen.getScreenId(), showScheduleIndex::loadTimeline);
+                List<ShowSlotDTO> conflicts = timeline.overlapping(startTime, endTime);
+                if (!conflicts.isEmpty()) {
+                    rows.add(new ShowRowResult(i, 409, "Show is Overlapping", null, conflicts,
+                            timeline.nextFreeStart(startTime, movie.getDuration())));
+                    continue;
+                }
+                // Later rows in this request must not overlap this one either
+                timeline.add(new ShowSlotDTO(null, startTime, endTime));
+
+                Show show = new Show();
+                show.setMovie(movie);
+                show.setTheatre(screen.getTheatre());
+                show.setScreen(screen);
+                show.setStartTime(startTime);
+                accepted.put(i, show);
+            } catch (ResourceNotFoundException e) {
+                rows.add(new ShowRowResult(i, 404, e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                rows.add(new ShowRowResult(i, 400, e.getMessage()));
+            }
+        }
+
+        // Every writer holds the screen lock, so this only fails on shows written outside this service
+        insert(() -> showRepo.saveAllAndFlush(accepted.values()), null);
+
+        accepted.forEach((index, show) -> {
+            rows.add(new ShowRowResult(index, 201, "Show added successfully", show.getShowId(), null, null));
+            showScheduleIndex.addAfterCommit(show.getScreen().getScreenId(),
+                    new ShowSlotDTO(show.getShowId(), show.getStartTime(), show.getEndTime()));
+        });
+        rows.sort(Comparator.comparingInt(ShowRowResult::getIndex));
+
+        int created = accepted.size();
+        if (created == requests.size()) {
+            return new BulkShowResponse(201, "All " + created + " shows added successfully", created, rows);
+        }
+        if (created == 0) {
+            return new BulkShowResponse(400, "No shows were added", 0, rows);
+        }
+        return new BulkShowResponse(207, created + " of " + requests.size() + " shows added", created, rows);
+    }
+
+    // Runs a flushing insert, turning a show_no_overlap violation into a 409 and dropping the stale timeline(s)
+    private <T> T insert(Supplier<T> action, Long screenId) {
+        try {
+            return action.get();
+        } catch (DataIntegrityViolationException e) {
+            String detail = e.getMostSpecificCause().getMessage();
+            if (detail == null || !detail.contains(OVERLAP_CONSTRAINT)) {
+                throw e;
+            }
+            if (screenId != null) {
+                showScheduleIndex.evict(screenId);
+            } else {
+                showScheduleIndex.evictAll();
+            }
+            throw new ShowOverlapException("Show is Overlapping");
+        }
+    }
+
     private void validateShowRequest(ShowRequest request) {
         if (request == null || request.getStartTime() == null) {
             throw new IllegalArgumentException("Invalid show request");
@@ -84,10 +258,14 @@ public class ShowService {
     }
 
     private void validateScreenTheatreRelationship(Screen screen, Theatre theatre) {
-        if (!screen.getTheatre().getTheatreId().equals(theatre.getTheatreId())) {
+        validateScreenTheatreRelationship(screen, theatre.getTheatreId());
+    }
+
+    private void validateScreenTheatreRelationship(Screen screen, Long theatreId) {
+        if (!screen.getTheatre().getTheatreId().equals(theatreId)) {
             throw new IllegalArgumentException(
                     "Screen " + screen.getScreenId() +
-                    " does not belong to Theatre " + theatre.getTheatreId()
+                    " does not belong to Theatre " + theatreId
             );
         }
     }
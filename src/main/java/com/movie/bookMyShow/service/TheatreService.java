@@ -23,6 +23,9 @@ public class TheatreService {
     @Autowired
     private CityRepo cityRepo;
 
+    @Autowired
+    private ShowScheduleIndex showScheduleIndex;
+
     public List<TheatreDTO> getAllTheatres() {
         return theatreRepo.findAll().stream()
                 .map(this::convertToDTO)
@@ -88,6 +91,8 @@ public class TheatreService {
             return new ApiResponse(HttpStatus.NOT_FOUND.value(), "Theatre not found");
         }
         theatreRepo.deleteById(theatreId);
+        // Shows of the theatre's screens are removed by cascade
+        showScheduleIndex.evictAll();
         return new ApiResponse(HttpStatus.OK.value(), "Theatre deleted successfully");
     }
 
@@ -0,0 +1,79 @@
+package com.movie.bookMyShow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.repo.BookingRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Tickets are immutable once a booking is confirmed, so the rendered {@link TicketDTO} is stored as JSON
+ * on the booking row and cached in Redis under {@code ticket:<holdId>}. Reads are a single key lookup;
+ * the relational booking rows are kept for reporting only.
+ */
+@Slf4j
+@Service
+public class TicketSnapshotStore {
+    private static final String KEY_PREFIX = "ticket:";
+    private static final Duration CACHE_TTL = Duration.ofDays(7);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BookingRepo bookingRepo;
+    private final ObjectMapper objectMapper;
+
+    public TicketSnapshotStore(RedisTemplate<String, String> redisTemplate, BookingRepo bookingRepo,
+                               ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.bookingRepo = bookingRepo;
+        this.objectMapper = objectMapper;
+    }
+
+    public String toJson(TicketDTO ticket) {
+        try {
+            return objectMapper.writeValueAsString(ticket);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize ticket", e);
+        }
+    }
+
+    // Called once the booking has committed
+    public void cache(String holdId, String snapshot) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + holdId, snapshot, CACHE_TTL);
+        } catch (Exception e) {
+            // The database copy is authoritative; a cold cache only costs one indexed read
+            log.warn("Could not cache ticket for holdId {}: {}", holdId, e.getMessage());
+        }
+    }
+
+    /**
+     * Redis first, then the snapshot column. Empty when the booking has no snapshot
+     * (not found, or written before snapshots existed).
+     */
+    public Optional<TicketDTO> find(String holdId) {
+        String snapshot = null;
+        try {
+            snapshot = redisTemplate.opsForValue().get(KEY_PREFIX + holdId);
+        } catch (Exception e) {
+            log.warn("Ticket cache read failed for holdId {}: {}", holdId, e.getMessage());
+        }
+        if (snapshot == null) {
+            snapshot = bookingRepo.findTicketSnapshotByHoldId(holdId).orElse(null);
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            cache(holdId, snapshot);
+        }
+        try {
+            return Optional.of(objectMapper.readValue(snapshot, TicketDTO.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable ticket snapshot for holdId {}: {}", holdId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
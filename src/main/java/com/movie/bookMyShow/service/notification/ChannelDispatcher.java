@@ -0,0 +1,92 @@
+package com.movie.bookMyShow.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends through one channel with a token-bucket rate limit and retries with doubling backoff.
+ * Blocks the calling consumer thread while throttled, which is the intended back-pressure:
+ * a slow channel slows the partition instead of piling up work in memory.
+ */
+@Slf4j
+class ChannelDispatcher {
+    private final TicketNotificationSender sender;
+    private final double ratePerSecond;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttledMs = new AtomicLong();
+
+    ChannelDispatcher(TicketNotificationSender sender, double ratePerSecond, int maxAttempts, long backoffMs) {
+        this.sender = sender;
+        this.ratePerSecond = ratePerSecond;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = backoffMs;
+        this.tokens = Math.max(1, ratePerSecond);
+    }
+
+    String channel() {
+        return sender.channel();
+    }
+
+    void dispatch(TicketNotification notification) throws Exception {
+        long delay = backoffMs;
+        for (int attempt = 1; ; attempt++) {
+            acquire();
+            try {
+                sender.send(notification);
+                sent.incrementAndGet();
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts) {
+                    failed.incrementAndGet();
+                    throw e;
+                }
+                retries.incrementAndGet();
+                log.warn("Channel {} failed for holdId {} (attempt {}): {}", channel(), notification.holdId(), attempt, e.getMessage());
+                Thread.sleep(delay);
+                delay *= 2;
+            }
+        }
+    }
+
+    // Shared by all consumer threads; rate <= 0 means unlimited
+    private void acquire() throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(Math.max(1, ratePerSecond), tokens + (now - refilledAt) * ratePerSecond / 1e9);
+            refilledAt = now;
+            tokens -= 1;
+            // A negative balance is this caller's place in the queue
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / ratePerSecond * 1e9);
+        }
+        if (waitNanos > 0) {
+            throttledMs.addAndGet(waitNanos / 1_000_000);
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ratePerSecond", ratePerSecond <= 0 ? "unlimited" : ratePerSecond);
+        stats.put("maxAttempts", maxAttempts);
+        stats.put("sent", sent.get());
+        stats.put("failed", failed.get());
+        stats.put("retries", retries.get());
+        stats.put("throttledMs", throttledMs.get());
+        return stats;
+    }
+}
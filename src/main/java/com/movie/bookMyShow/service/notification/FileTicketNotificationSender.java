@@ -0,0 +1,35 @@
+package com.movie.bookMyShow.service.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+// Local stand-in for an outbound channel: appends one line per notification to a file
+@Component
+public class FileTicketNotificationSender implements TicketNotificationSender {
+
+    @Value("${ticket.notification.file.path:notifications/tickets.log}")
+    private String path;
+
+    @Override
+    public String channel() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void send(TicketNotification notification) throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        String line = LocalDateTime.now() + "\t" + notification.holdId() + "\t" + notification.phoneNumber()
+                + "\t" + notification.subject() + "\t" + notification.body().replace('\n', ' ') + System.lineSeparator();
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,21 @@
+package com.movie.bookMyShow.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Stand-in for a real SMS provider: writes the notification to the application log
+@Slf4j
+@Component
+public class LogTicketNotificationSender implements TicketNotificationSender {
+
+    @Override
+    public String channel() {
+        return "log";
+    }
+
+    @Override
+    public void send(TicketNotification notification) {
+        log.info("Ticket notification to {} (holdId {}): {} | {}", notification.phoneNumber(),
+                notification.holdId(), notification.subject(), notification.body());
+    }
+}
@@ -0,0 +1,5 @@
+package com.movie.bookMyShow.service.notification;
+
+// Rendered ticket, ready for a sender; holdId is the Kafka message key
+public record TicketNotification(String holdId, String phoneNumber, String subject, String body) {
+}
@@ -0,0 +1,170 @@
+package com.movie.bookMyShow.service.notification;
+
+import com.movie.bookMyShow.dto.SeatDTO;
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.service.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Consumes {@code book_movie} in batches and delivers each ticket through the configured channels.
+ * Offsets are committed when the listener returns, i.e. only after every ticket in the batch was
+ * dispatched. A ticket that still fails after its channel's retries fails the batch at that record:
+ * earlier records are committed and the rest is redelivered (so delivery is at-least-once per channel).
+ * Once the redeliveries run out, the ticket is published to {@code book_movie.DLT} before its offset
+ * is committed, so it is parked for replay rather than dropped.
+ */
+@Slf4j
+@Service
+public class TicketNotificationConsumer {
+    private static final DateTimeFormatter SHOW_TIME = DateTimeFormatter.ofPattern("EEE dd MMM, hh:mm a");
+    private static final long ADMIN_TIMEOUT_SECONDS = 5;
+
+    private final List<ChannelDispatcher> dispatchers = new ArrayList<>();
+    private final KafkaAdmin kafkaAdmin;
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @Value("${spring.kafka.consumer.book-movie-group-id}")
+    private String groupId;
+
+    public TicketNotificationConsumer(List<TicketNotificationSender> senders, Environment environment, KafkaAdmin kafkaAdmin) {
+        this.kafkaAdmin = kafkaAdmin;
+        Map<String, TicketNotificationSender> byChannel = senders.stream()
+                .collect(Collectors.toMap(TicketNotificationSender::channel, sender -> sender));
+        String channels = environment.getProperty("ticket.notification.channels", "log");
+        for (String channel : Arrays.stream(channels.split(",")).map(String::trim).filter(c -> !c.isEmpty()).toList()) {
+            TicketNotificationSender sender = byChannel.get(channel);
+            if (sender == null) {
+                throw new IllegalStateException("No TicketNotificationSender for channel " + channel);
+            }
+            dispatchers.add(new ChannelDispatcher(sender,
+                    setting(environment, channel, "rate-per-second", Double.class, 50.0),
+                    setting(environment, channel, "max-attempts", Integer.class, 3),
+                    setting(environment, channel, "backoff-ms", Long.class, 500L)));
+        }
+        log.info("Ticket notifications go to channels {}", dispatchers.stream().map(ChannelDispatcher::channel).toList());
+    }
+
+    // ticket.notification.channel.<name>.<key>, falling back to ticket.notification.<key>
+    private static <T> T setting(Environment environment, String channel, String key, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty("ticket.notification." + key, type, defaultValue);
+        return environment.getProperty("ticket.notification.channel." + channel + "." + key, type, fallback);
+    }
+
+    @KafkaListener(topics = OutboxService.BOOK_MOVIE_TOPIC,
+            containerFactory = "bookMovieKafkaListenerContainerFactory",
+            concurrency = "${kafka.book-movie.consumer.concurrency:3}")
+    public void onTickets(List<ConsumerRecord<String, TicketDTO>> records) {
+        batches.incrementAndGet();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, TicketDTO> record = records.get(i);
+            if (record.value() == null) {
+                // ErrorHandlingDeserializer hands over undeserializable messages as null; retrying will not fix them
+                log.error("Skipping unreadable ticket at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                skipped.incrementAndGet();
+                continue;
+            }
+            TicketNotification notification = render(record.key(), record.value());
+            for (ChannelDispatcher dispatcher : dispatchers) {
+                try {
+                    dispatcher.dispatch(notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BatchListenerFailedException("Interrupted while dispatching", e, i);
+                } catch (Exception e) {
+                    throw new BatchListenerFailedException("Channel " + dispatcher.channel()
+                            + " failed for holdId " + record.key(), e, i);
+                }
+            }
+            consumed.incrementAndGet();
+        }
+    }
+
+    private TicketNotification render(String holdId, TicketDTO ticket) {
+        String seats = ticket.getSeats() == null ? "" : ticket.getSeats().stream()
+                .map(SeatDTO::getSeatIdentifier)
+                .collect(Collectors.joining(", "));
+        String showTime = ticket.getShowTime() == null ? "" : ticket.getShowTime().format(SHOW_TIME);
+        String subject = "Your tickets for " + ticket.getMovieName();
+        String body = ticket.getMovieName() + " at " + ticket.getTheatreName() + ", " + showTime
+                + "\nSeats: " + seats
+                + "\nBooking ID: " + holdId;
+        return new TicketNotification(holdId, ticket.getPhoneNumber(), subject, body);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batches.get());
+        stats.put("ticketsDispatched", consumed.get());
+        stats.put("ticketsSkipped", skipped.get());
+        Map<String, Object> channels = new LinkedHashMap<>();
+        dispatchers.forEach(dispatcher -> channels.put(dispatcher.channel(), dispatcher.stats()));
+        stats.put("channels", channels);
+        stats.put("lag", lag());
+        return stats;
+    }
+
+    // Committed offset of our group against the log end, per partition
+    private Map<String, Object> lag() {
+        Map<String, Object> lag = new LinkedHashMap<>();
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            TopicDescription topic = admin.describeTopics(List.of(OutboxService.BOOK_MOVIE_TOPIC))
+                    .allTopicNames().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .get(OutboxService.BOOK_MOVIE_TOPIC);
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            topic.partitions().forEach(p -> latest.put(new TopicPartition(topic.name(), p.partition()), OffsetSpec.latest()));
+
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = admin.listOffsets(latest)
+                    .all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            Map<Integer, Map<String, Long>> partitions = new TreeMap<>();
+            long total = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+                OffsetAndMetadata offset = committed.get(end.getKey());
+                long position = offset == null ? 0 : offset.offset();
+                long behind = Math.max(0, end.getValue().offset() - position);
+                total += behind;
+                partitions.put(end.getKey().partition(),
+                        Map.of("committed", position, "end", end.getValue().offset(), "lag", behind));
+            }
+            lag.put("group", groupId);
+            lag.put("total", total);
+            lag.put("partitions", partitions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lag.put("error", "interrupted");
+        } catch (Exception e) {
+            log.warn("Could not read consumer lag for group {}: {}", groupId, e.getMessage());
+            lag.put("error", e.getMessage());
+        }
+        return lag;
+    }
+}
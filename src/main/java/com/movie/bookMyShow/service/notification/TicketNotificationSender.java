@@ -0,0 +1,12 @@
+package com.movie.bookMyShow.service.notification;
+
+/**
+ * One way of delivering a ticket to the customer (SMS, email, ...). Implementations are picked by
+ * {@link #channel()} from {@code ticket.notification.channels}. {@link #send} should throw on failure;
+ * the consumer retries and rate-limits per channel.
+ */
+public interface TicketNotificationSender {
+    String channel();
+
+    void send(TicketNotification notification) throws Exception;
+}
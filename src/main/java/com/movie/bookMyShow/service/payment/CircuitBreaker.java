@@ -0,0 +1,107 @@
+package com.movie.bookMyShow.service.payment;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last {@code windowSize} calls
+ * reaches the threshold, rejects everything for {@code openMs}, then lets {@code halfOpenCalls}
+ * trial calls through: all succeed and it closes, any fails and it opens again.
+ * A trial whose outcome will never be known is handed back with {@link #abandon}, otherwise the
+ * round could never finish and the breaker would stay half-open.
+ */
+class CircuitBreaker {
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ResilienceSettings settings;
+    private final boolean[] window; // true = failure
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+    private long halfOpenRound; // Tells trials of the current half-open round from stale ones
+
+    CircuitBreaker(ResilienceSettings settings) {
+        this.settings = settings;
+        this.window = new boolean[settings.windowSize()];
+    }
+
+    // -1 when rejected; otherwise a ticket for abandon(): 0 for a normal call, the half-open round for a trial
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < settings.openMs()) {
+                return -1;
+            }
+            state = State.HALF_OPEN;
+            halfOpenRound++;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= settings.halfOpenCalls()) {
+                return -1;
+            }
+            trialsStarted++;
+            return halfOpenRound;
+        }
+        return 0;
+    }
+
+    // The call will report neither success nor failure; frees its trial slot if that round is still running
+    synchronized void abandon(long ticket) {
+        if (ticket > 0 && state == State.HALF_OPEN && ticket == halfOpenRound) {
+            trialsStarted--;
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= settings.halfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= settings.minimumCalls()
+                && (double) failures / recorded >= settings.failureRateThreshold()) {
+            open();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length && window[next]) {
+            failures--;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        recorded = Math.min(recorded + 1, window.length);
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,166 @@
+package com.movie.bookMyShow.service.payment.Crypto;
+
+import com.movie.bookMyShow.enums.PaymentStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.exceptions.ClientConnectionException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches every pending ETH deposit address from a single scheduler thread.
+ * Each tick sends the balances of all pending addresses as JSON-RPC batches of
+ * {@code ethereum.rpc.batch-size} and completes the futures of the ones that are paid,
+ * so a thousand open checkouts cost a handful of HTTP calls per interval and no parked threads.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ethereum.detection.mode", havingValue = "balance", matchIfMissing = true)
+public class EthBalancePoller implements EthDepositWatcher {
+    private final Web3j web3j;
+    private final Executor ethGatewayExecutor;
+    private final Map<String, PendingDeposit> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eth-balance-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${ethereum.transaction.scan.interval.seconds}")
+    private int scanInterval;
+
+    @Value("${ethereum.payment.timeout.minutes}")
+    private int paymentTimeoutMinutes;
+
+    @Value("${ethereum.rpc.batch-size:100}")
+    private int batchSize; // Most providers cap the number of calls in one JSON-RPC batch
+
+    public EthBalancePoller(Web3j web3j, @Qualifier("ethGatewayExecutor") Executor ethGatewayExecutor) {
+        this.web3j = web3j;
+        this.ethGatewayExecutor = ethGatewayExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, scanInterval, scanInterval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Deposits still open are left to time out; the booking flow treats them as unpaid
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> watch(String holdId, String address, double requiredAmount) {
+        String key = address.toLowerCase(Locale.ROOT);
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(paymentTimeoutMinutes));
+        PendingDeposit deposit = pending.compute(key, (k, existing) ->
+                existing != null && !existing.future.isDone()
+                        ? existing
+                        : new PendingDeposit(holdId, address, requiredAmount, deadline, new CompletableFuture<>()));
+        log.info("Monitoring address {} for hold {} ({} ETH), {} deposits pending",
+                address, holdId, requiredAmount, pending.size());
+        return deposit.future;
+    }
+
+    private void poll() {
+        try {
+            Instant now = Instant.now();
+            List<PendingDeposit> due = new ArrayList<>();
+            for (PendingDeposit deposit : pending.values()) {
+                if (deposit.future.isDone()) {
+                    // Completed elsewhere, e.g. by the caller's orTimeout
+                    pending.remove(deposit.key(), deposit);
+                } else if (now.isAfter(deposit.deadline)) {
+                    log.error("Payment timeout for hold {} on address {}", deposit.holdId, deposit.address);
+                    finish(deposit, false);
+                } else {
+                    due.add(deposit);
+                }
+            }
+            for (int from = 0; from < due.size(); from += batchSize) {
+                checkBatch(due.subList(from, Math.min(from + batchSize, due.size())));
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic task
+            log.error("ETH deposit poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void checkBatch(List<PendingDeposit> deposits) {
+        BatchRequest batch = web3j.newBatch();
+        Map<Long, PendingDeposit> byRequestId = new HashMap<>();
+        for (PendingDeposit deposit : deposits) {
+            Request<?, EthGetBalance> request = web3j.ethGetBalance(deposit.address, DefaultBlockParameterName.LATEST);
+            byRequestId.put(request.getId(), deposit);
+            batch.add(request);
+        }
+
+        BatchResponse response;
+        try {
+            response = batch.send();
+        } catch (IOException | ClientConnectionException e) {
+            // Everything in the batch stays pending and is retried next tick; HTTP errors arrive unchecked
+            log.warn("Balance batch of {} addresses failed: {}", deposits.size(), e.getMessage());
+            return;
+        }
+
+        // Match by JSON-RPC id: nodes are not required to answer a batch in request order
+        for (Response<?> result : response.getResponses()) {
+            PendingDeposit deposit = byRequestId.get(result.getId());
+            if (deposit == null) {
+                continue;
+            }
+            if (result.hasError()) {
+                log.warn("Error getting balance for address {}: {}", deposit.address, result.getError().getMessage());
+                continue;
+            }
+            BigInteger balance = ((EthGetBalance) result).getBalance();
+            if (EthDepositWatcher.evaluate(balance, deposit.requiredAmount) == PaymentStatus.SUCCESS) {
+                log.info("Payment detected for address {} and hold {} with correct amount", deposit.address, deposit.holdId);
+                finish(deposit, true);
+            }
+        }
+    }
+
+    private void finish(PendingDeposit deposit, boolean paid) {
+        if (pending.remove(deposit.key(), deposit)) {
+            // Booking confirmation runs on the result; keep it off the single monitor thread
+            ethGatewayExecutor.execute(() -> deposit.future.complete(paid));
+        }
+    }
+
+    private record PendingDeposit(String holdId, String address, double requiredAmount, Instant deadline,
+                                  CompletableFuture<Boolean> future) {
+        String key() {
+            return address.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.movie.bookMyShow.service.payment.Crypto;
+
+import com.movie.bookMyShow.enums.PaymentStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects deposits by reading each new block once and looking up every transaction's recipient
+ * in a concurrent map of open deposit addresses. RPC cost follows the block rate, not the number of
+ * open checkouts, and no blocks are fetched while nothing is open. A deposit counts once it has
+ * {@code ethereum.payment.confirmation.blocks} confirmations against the chain head fetched at the
+ * start of each tick and every counted block is still on the canonical chain. A credit whose block
+ * was reorganised away is dropped and its height rescanned; credits are keyed by transaction hash,
+ * so a transfer re-mined in another block is counted once.
+ * Only plain transfers are seen; ETH sent by a contract call (internal transaction) is not.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ethereum.detection.mode", havingValue = "blocks")
+public class EthBlockScanner implements EthDepositWatcher {
+    private final Web3j web3j;
+    private final Executor ethGatewayExecutor;
+    private final Map<String, PendingDeposit> open = new ConcurrentHashMap<>();
+    // Deposits that received at least one transfer; only these need re-evaluating as blocks confirm
+    private final Set<PendingDeposit> credited = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eth-block-scanner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BigInteger nextBlock; // Scanner thread only
+
+    @Value("${ethereum.transaction.scan.interval.seconds}")
+    private int scanInterval;
+
+    @Value("${ethereum.payment.timeout.minutes}")
+    private int paymentTimeoutMinutes;
+
+    @Value("${ethereum.payment.confirmation.blocks}")
+    private int requiredConfirmations;
+
+    @Value("${ethereum.max.rescan.blocks}")
+    private int maxRescanBlocks; // Cap on catch-up after downtime or a slow node
+
+    public EthBlockScanner(Web3j web3j, @Qualifier("ethGatewayExecutor") Executor ethGatewayExecutor) {
+        this.web3j = web3j;
+        this.ethGatewayExecutor = ethGatewayExecutor;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::scan, 0, scanInterval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> watch(String holdId, String address, double requiredAmount) {
+        String key = address.toLowerCase(Locale.ROOT);
+        Instant deadline = Instant.now().plus(Duration.ofMinutes(paymentTimeoutMinutes));
+        PendingDeposit deposit = open.compute(key, (k, existing) ->
+                existing != null && !existing.future.isDone()
+                        ? existing
+                        : new PendingDeposit(holdId, key, requiredAmount, deadline));
+        log.info("Watching address {} for hold {} ({} ETH), {} deposits open", address, holdId, requiredAmount, open.size());
+        return deposit.future;
+    }
+
+    private void scan() {
+        try {
+            BigInteger head = web3j.ethBlockNumber().send().getBlockNumber();
+            if (nextBlock == null) {
+                // Addresses are fresh per checkout, so nothing before startup can pay them
+                nextBlock = head;
+            } else if (head.subtract(nextBlock).compareTo(BigInteger.valueOf(maxRescanBlocks)) > 0) {
+                BigInteger resumeAt = head.subtract(BigInteger.valueOf(maxRescanBlocks));
+                log.warn("Scanner is {} blocks behind; skipping blocks {} to {}",
+                        head.subtract(nextBlock), nextBlock, resumeAt.subtract(BigInteger.ONE));
+                nextBlock = resumeAt;
+            }
+
+            while (nextBlock.compareTo(head) <= 0) {
+                if (open.isEmpty()) {
+                    // Nobody to pay; a deposit watched later can only be paid in a later block
+                    nextBlock = head.add(BigInteger.ONE);
+                    break;
+                }
+                scanBlock(nextBlock);
+                nextBlock = nextBlock.add(BigInteger.ONE);
+            }
+            settle(head);
+        } catch (IOException e) {
+            // The failed block is retried next tick
+            log.warn("Block scan stopped at block {}: {}", nextBlock, e.getMessage());
+        } catch (Exception e) {
+            log.error("Block scan failed at block {}: {}", nextBlock, e.getMessage(), e);
+        } finally {
+            expire();
+        }
+    }
+
+    private void scanBlock(BigInteger number) throws IOException {
+        EthBlock response = web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(number), true).send();
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        EthBlock.Block block = response.getBlock();
+        if (block == null) {
+            throw new IOException("Block " + number + " not available yet");
+        }
+        for (EthBlock.TransactionResult<?> result : block.getTransactions()) {
+            EthBlock.TransactionObject tx = (EthBlock.TransactionObject) result.get();
+            if (tx.getTo() == null) {
+                continue; // Contract creation
+            }
+            PendingDeposit deposit = open.get(tx.getTo().toLowerCase(Locale.ROOT));
+            if (deposit != null && tx.getValue().signum() > 0) {
+                log.info("Transfer of {} wei to {} for hold {} in block {}", tx.getValue(), deposit.address, deposit.holdId, number);
+                deposit.credits.put(tx.getHash(), new Credit(number, block.getHash(), tx.getValue()));
+                credited.add(deposit);
+            }
+        }
+    }
+
+    // Completes deposits whose confirmed, still-canonical transfers add up to the required amount
+    private void settle(BigInteger head) throws IOException {
+        Map<BigInteger, String> canonical = new HashMap<>(); // Block hashes fetched this tick
+        for (PendingDeposit deposit : credited) {
+            List<Credit> counted = new ArrayList<>();
+            BigInteger confirmed = BigInteger.ZERO;
+            for (Credit credit : deposit.credits.values()) {
+                if (confirmations(head, credit.block) >= requiredConfirmations) {
+                    counted.add(credit);
+                    confirmed = confirmed.add(credit.wei);
+                }
+            }
+            if (EthDepositWatcher.evaluate(confirmed, deposit.requiredAmount) != PaymentStatus.SUCCESS) {
+                continue;
+            }
+            // Only deposits about to be paid cost hash lookups
+            boolean reorged = false;
+            for (Credit credit : counted) {
+                String hash = canonical.get(credit.block);
+                if (hash == null) {
+                    hash = blockHash(credit.block);
+                    canonical.put(credit.block, hash);
+                }
+                if (!hash.equalsIgnoreCase(credit.blockHash)) {
+                    log.warn("Block {} of a transfer to {} was reorganised away; rescanning from it", credit.block, deposit.address);
+                    deposit.credits.values().remove(credit);
+                    if (credit.block.compareTo(nextBlock) < 0) {
+                        nextBlock = credit.block;
+                    }
+                    reorged = true;
+                }
+            }
+            if (!reorged) {
+                log.info("Payment confirmed for address {} and hold {} at head {}", deposit.address, deposit.holdId, head);
+                finish(deposit, true);
+            }
+        }
+    }
+
+    private String blockHash(BigInteger number) throws IOException {
+        EthBlock response = web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(number), false).send();
+        if (response.hasError()) {
+            throw new IOException(response.getError().getMessage());
+        }
+        if (response.getBlock() == null) {
+            throw new IOException("Block " + number + " not available");
+        }
+        return response.getBlock().getHash();
+    }
+
+    private void expire() {
+        Instant now = Instant.now();
+        for (PendingDeposit deposit : open.values()) {
+            if (deposit.future.isDone()) {
+                // Completed elsewhere, e.g. by the caller's orTimeout
+                open.remove(deposit.address, deposit);
+                credited.remove(deposit);
+            } else if (now.isAfter(deposit.deadline)) {
+                log.error("Payment timeout for hold {} on address {}", deposit.holdId, deposit.address);
+                finish(deposit, false);
+            }
+        }
+    }
+
+    private void finish(PendingDeposit deposit, boolean paid) {
+        credited.remove(deposit);
+        if (open.remove(deposit.address, deposit)) {
+            // Booking confirmation runs on the result; keep it off the scanner thread
+            ethGatewayExecutor.execute(() -> deposit.future.complete(paid));
+        }
+    }
+
+    // The block containing the transfer counts as its first confirmation
+    private long confirmations(BigInteger head, BigInteger block) {
+        return head.subtract(block).longValueExact() + 1;
+    }
+
+    private record Credit(BigInteger block, String blockHash, BigInteger wei) {
+    }
+
+    private static final class PendingDeposit {
+        private final String holdId;
+        private final String address;
+        private final double requiredAmount;
+        private final Instant deadline;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final Map<String, Credit> credits = new HashMap<>(); // By transaction hash; scanner thread only
+
+        private PendingDeposit(String holdId, String address, double requiredAmount, Instant deadline) {
+            this.holdId = holdId;
+            this.address = address;
+            this.requiredAmount = requiredAmount;
+            this.deadline = deadline;
+        }
+    }
+}
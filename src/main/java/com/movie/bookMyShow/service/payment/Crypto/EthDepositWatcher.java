@@ -0,0 +1,41 @@
+package com.movie.bookMyShow.service.payment.Crypto;
+
+import com.movie.bookMyShow.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Detects incoming ETH deposits. Chosen with {@code ethereum.detection.mode}:
+ * {@code balance} polls the balance of every open address ({@link EthBalancePoller}),
+ * {@code blocks} follows new blocks and matches their recipients ({@link EthBlockScanner}).
+ */
+public interface EthDepositWatcher {
+
+    /**
+     * Returns a future that completes with {@code true} once the address has received the required
+     * amount, or {@code false} when the payment window closes.
+     * Watching an address that is already being watched returns the existing future.
+     */
+    CompletableFuture<Boolean> watch(String holdId, String address, double requiredAmount);
+
+    /**
+     * Compares an amount in wei with the required ETH amount, allowing 1% either way.
+     */
+    static PaymentStatus evaluate(BigInteger receivedWei, double requiredAmount) {
+        if (receivedWei.compareTo(BigInteger.ZERO) <= 0) {
+            return PaymentStatus.PENDING;
+        }
+        BigDecimal weiPerEth = BigDecimal.TEN.pow(18);
+        BigDecimal required = BigDecimal.valueOf(requiredAmount);
+        BigInteger requiredWei = required.multiply(weiPerEth).toBigInteger();
+        BigInteger toleranceWei = required.multiply(BigDecimal.valueOf(0.01)).multiply(weiPerEth).toBigInteger();
+
+        if (receivedWei.compareTo(requiredWei.subtract(toleranceWei)) >= 0
+                && receivedWei.compareTo(requiredWei.add(toleranceWei)) <= 0) {
+            return PaymentStatus.SUCCESS;
+        }
+        return PaymentStatus.INVALID_AMOUNT;
+    }
+}
@@ -1,24 +1,151 @@
 package com.movie.bookMyShow.service.payment.Crypto;
 
+import com.movie.bookMyShow.repo.DepositAddressRepo;
 import com.movie.bookMyShow.util.AddressUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.crypto.DeterministicKey;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Hands out ETH deposit addresses. Child indexes come from a database sequence, so every booking
+ * gets an address no other booking has had. Addresses are derived in the background into a pool
+ * ({@code deposit_address} rows without a hold) and claimed with a single conditional update,
+ * which keeps key derivation off the booking request path.
+ */
+@Slf4j
 @Service
 public class EthereumAddressService implements CryptoAddressService {
+    private static final String INDEX_SEQUENCE = "deposit_address_index_seq";
+
+    // Oldest unclaimed address; SKIP LOCKED keeps concurrent bookings from waiting on each other
+    private static final String CLAIM = """
+            UPDATE deposit_address SET hold_id = ?, claimed_at = ?
+            WHERE derivation_index = (
+                SELECT derivation_index FROM deposit_address WHERE hold_id IS NULL
+                ORDER BY derivation_index LIMIT 1 FOR UPDATE SKIP LOCKED)
+            RETURNING address
+            """;
+
+    private static final String INSERT = """
+            INSERT INTO deposit_address (derivation_index, address, hold_id, created_at, claimed_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DepositAddressRepo depositAddressRepo;
 
     @Value("${crypto.eth.xpub}")
     private String xpub;
 
+    @Value("${crypto.eth.address-pool.size:500}")
+    private int poolSize;
+
+    @Value("${crypto.eth.address-pool.min-size:100}")
+    private int poolMinSize; // Refill below this
+
+    private volatile DeterministicKey parentKey;
+    private volatile boolean ready;
+
+    public EthereumAddressService(JdbcTemplate jdbcTemplate, DepositAddressRepo depositAddressRepo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.depositAddressRepo = depositAddressRepo;
+    }
+
+    // Runs before the web server starts, so no booking can reach generateNewAddress without the sequence.
+    // The table comes from ddl-auto (the repository dependency guarantees it exists by now); the
+    // sequence and the partial index are not entity-managed.
+    @PostConstruct
+    void createSchemaObjects() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + INDEX_SEQUENCE);
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_deposit_address_unclaimed "
+                    + "ON deposit_address (derivation_index) WHERE hold_id IS NULL");
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create " + INDEX_SEQUENCE + " for deposit addresses", e);
+        }
+    }
+
+    // Filling the pool derives keys, which is slow; do it once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        ready = true;
+        refillPool();
+    }
+
+    @Override
     public String generateNewAddress(String holdId) {
-        System.out.print("\nGetting instance for hold ID: " + holdId+"\n xpub : "+ xpub +"\n");
-//            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-//            byte[] hash = digest.digest(holdId.getBytes());
-        // Use the first 4 bytes of the hash to create a positive int index
-//            int index = ((hash[0] & 0xFF) << 24) | ((hash[1] & 0xFF) << 16) | ((hash[2] & 0xFF) << 8) | (hash[3] & 0xFF);
-        int index = Math.abs(holdId.hashCode());
-
-        return AddressUtil.deriveEthAddressFromXpub(xpub, index);
+        List<String> claimed = jdbcTemplate.queryForList(CLAIM, String.class, holdId, Timestamp.valueOf(LocalDateTime.now()));
+        if (!claimed.isEmpty()) {
+            return claimed.get(0);
+        }
+
+        // Pool drained faster than the refill; derive this one inline rather than fail the booking
+        log.warn("Deposit address pool is empty; deriving an address for hold {} on the request path", holdId);
+        int index = nextIndexes(1).get(0);
+        String address = AddressUtil.deriveEthAddress(parentKey(), index);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(INSERT, index, address, holdId, Timestamp.valueOf(now), Timestamp.valueOf(now));
+        return address;
+    }
+
+    @Scheduled(fixedDelayString = "${crypto.eth.address-pool.refill-interval-ms:10000}")
+    public void refillPool() {
+        if (!ready) {
+            return;
+        }
+        try {
+            long available = depositAddressRepo.countByHoldIdIsNull();
+            if (available >= poolMinSize) {
+                return;
+            }
+            int missing = (int) (poolSize - available);
+            DeterministicKey key = parentKey();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(missing);
+            for (int index : nextIndexes(missing)) {
+                rows.add(new Object[]{index, AddressUtil.deriveEthAddress(key, index), null, now, null});
+            }
+            jdbcTemplate.batchUpdate(INSERT, rows);
+            log.info("Derived {} deposit addresses, pool now holds {}", missing, available + missing);
+        } catch (Exception e) {
+            // Bookings fall back to inline derivation; try again next round
+            log.error("Failed to refill deposit address pool: {}", e.getMessage(), e);
+        }
+    }
+
+    // Sequence values are never handed out twice, even across nodes or after a failed insert
+    private List<Integer> nextIndexes(int count) {
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT nextval('" + INDEX_SEQUENCE + "') FROM generate_series(1, ?)", Long.class, count);
+        List<Integer> indexes = new ArrayList<>(values.size());
+        for (long value : values) {
+            // Non-hardened child numbers stop at 2^31 - 1
+            indexes.add(Math.toIntExact(value));
+        }
+        return indexes;
+    }
+
+    private DeterministicKey parentKey() {
+        DeterministicKey key = parentKey;
+        if (key == null) {
+            synchronized (this) {
+                if (parentKey == null) {
+                    parentKey = AddressUtil.parseXpub(xpub);
+                }
+                key = parentKey;
+            }
+        }
+        return key;
     }
 }
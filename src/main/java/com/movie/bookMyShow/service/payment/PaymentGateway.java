@@ -8,4 +8,15 @@ public interface PaymentGateway {
     CompletableFuture<Boolean> processPayment(BookingRequest request);
     boolean revertPayment(BookingRequest request);
     PaymentStatus checkPaymentStatus(String transactionId, double requiredAmount);
+
+    // False when revertPayment can never succeed; failed payments then go straight to a manual refund
+    default boolean supportsRevert() {
+        return true;
+    }
+
+    // True when processPayment only registers the checkout and its future settles when the customer pays
+    // or the payment window closes; the gateway's own work is done once processPayment returns
+    default boolean settlesByCustomer() {
+        return false;
+    }
 } 
\ No newline at end of file
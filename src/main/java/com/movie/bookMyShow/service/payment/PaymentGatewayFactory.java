@@ -1,25 +1,53 @@
 package com.movie.bookMyShow.service.payment;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
 import com.movie.bookMyShow.exception.ResourceNotFoundException;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Service
 public class PaymentGatewayFactory {
-    
-    @Autowired
-    private Map<String, PaymentGateway> paymentGateways;
+    private static final String SUFFIX = "PaymentGateway";
+
+    // Every gateway is handed out wrapped, so all callers share its bulkhead and circuit breaker
+    private final Map<String, ResilientPaymentGateway> paymentGateways = new HashMap<>();
+
+    public PaymentGatewayFactory(Map<String, PaymentGateway> gateways, Map<String, Executor> executors,
+                                 @Qualifier("paymentExecutor") Executor paymentExecutor, Environment environment) {
+        gateways.forEach((beanName, gateway) -> {
+            if (!beanName.endsWith(SUFFIX)) {
+                return;
+            }
+            String method = beanName.substring(0, beanName.length() - SUFFIX.length());
+            // Synchronous calls run on the gateway's own pool (upiGatewayExecutor, ...) when it has one
+            Executor executor = executors.getOrDefault(method.toLowerCase() + "GatewayExecutor", paymentExecutor);
+            ResilienceSettings settings = ResilienceSettings.from(environment, method);
+            paymentGateways.put(beanName, new ResilientPaymentGateway(method, gateway, executor, settings));
+            log.info("Payment gateway {} registered with {}", method, settings);
+        });
+    }
 
     public PaymentGateway getPaymentGateway(String paymentMethod) {
 
-        String gatewayName = paymentMethod + "PaymentGateway";
+        String gatewayName = paymentMethod + SUFFIX;
         PaymentGateway gateway = paymentGateways.get(gatewayName);
         if (gateway == null) {
             throw new ResourceNotFoundException("No payment gateway found for method: " + paymentMethod);
         }
         return gateway;
     }
-} 
\ No newline at end of file
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        paymentGateways.forEach((name, gateway) -> stats.put(name.substring(0, name.length() - SUFFIX.length()), gateway.stats()));
+        return stats;
+    }
+}
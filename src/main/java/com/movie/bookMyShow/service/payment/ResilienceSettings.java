@@ -0,0 +1,42 @@
+package com.movie.bookMyShow.service.payment;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Limits for one gateway. Each value is read from {@code payment.resilience.gateway.<METHOD>.<key>}
+ * and falls back to {@code payment.resilience.<key>}.
+ */
+record ResilienceSettings(
+        int maxConcurrent,
+        long callTimeoutMs,
+        long processTimeoutMs,
+        double failureRateThreshold,
+        int windowSize,
+        int minimumCalls,
+        long openMs,
+        int halfOpenCalls,
+        boolean hedgeEnabled,
+        long hedgeDelayMs) {
+
+    static ResilienceSettings from(Environment environment, String method) {
+        Lookup lookup = new Lookup(environment, method);
+        return new ResilienceSettings(
+                lookup.get("max-concurrent", Integer.class, 200),
+                lookup.get("call-timeout-ms", Long.class, 15000L),
+                lookup.get("process-timeout-ms", Long.class, 0L),
+                lookup.get("failure-rate-threshold", Double.class, 0.5),
+                lookup.get("window-size", Integer.class, 50),
+                lookup.get("minimum-calls", Integer.class, 20),
+                lookup.get("open-ms", Long.class, 30000L),
+                lookup.get("half-open-calls", Integer.class, 3),
+                lookup.get("hedge.enabled", Boolean.class, false),
+                lookup.get("hedge.delay-ms", Long.class, 0L));
+    }
+
+    private record Lookup(Environment environment, String method) {
+        <T> T get(String key, Class<T> type, T defaultValue) {
+            T fallback = environment.getProperty("payment.resilience." + key, type, defaultValue);
+            return environment.getProperty("payment.resilience.gateway." + method + "." + key, type, fallback);
+        }
+    }
+}
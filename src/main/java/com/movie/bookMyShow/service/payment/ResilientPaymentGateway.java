@@ -0,0 +1,242 @@
+package com.movie.bookMyShow.service.payment;
+
+import com.movie.bookMyShow.dto.BookingRequest;
+import com.movie.bookMyShow.enums.PaymentStatus;
+import com.movie.bookMyShow.exception.PaymentGatewayUnavailableException;
+import com.movie.bookMyShow.util.LatencyRecorder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Wraps one gateway so its trouble stays its own:
+ * a bulkhead caps concurrent calls, a circuit breaker fails fast while it keeps erroring, and
+ * synchronous calls run on the gateway's executor within a timeout budget. Status checks, being
+ * idempotent, can be hedged: if the first call is slower than the hedge delay (the observed p95 unless
+ * configured), a second one is sent and the first answer wins.
+ * Rejections throw {@link PaymentGatewayUnavailableException} before anything reaches the gateway,
+ * so the booking flow retries them like any other failed call.
+ */
+@Slf4j
+public class ResilientPaymentGateway implements PaymentGateway {
+    private final String method;
+    private final PaymentGateway delegate;
+    private final Executor executor;
+    private final ResilienceSettings settings;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    private final LatencyRecorder processLatency = new LatencyRecorder(1024);
+    private final LatencyRecorder statusLatency = new LatencyRecorder(1024);
+    private final LatencyRecorder revertLatency = new LatencyRecorder(1024);
+    private final AtomicLong rejectedBulkhead = new AtomicLong();
+    private final AtomicLong rejectedOpen = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    ResilientPaymentGateway(String method, PaymentGateway delegate, Executor executor, ResilienceSettings settings) {
+        this.method = method;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.settings = settings;
+        this.bulkhead = new Semaphore(settings.maxConcurrent());
+        this.circuitBreaker = new CircuitBreaker(settings);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processPayment(BookingRequest request) {
+        long ticket = admit();
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> payment;
+        try {
+            payment = delegate.processPayment(request);
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            record(processLatency, start, false);
+            throw e;
+        }
+        // For gateways the customer settles (ETH deposits, webhook UPI) the call above is all the gateway does;
+        // the future waits on the customer for up to the payment window. The circuit judges the registration,
+        // so a half-open trial ends here instead of holding its slot until someone pays.
+        boolean judgedOnSubmit = delegate.settlesByCustomer();
+        if (judgedOnSubmit) {
+            record(processLatency, start, true);
+        }
+        CompletableFuture<Boolean> bounded = settings.processTimeoutMs() > 0
+                ? payment.copy().orTimeout(settings.processTimeoutMs(), TimeUnit.MILLISECONDS)
+                : payment;
+
+        // The permit is held until the payment settles or the caller stops waiting, whichever comes first.
+        // Otherwise only the gateway's own outcome counts for the circuit: a customer who never pays is not
+        // a gateway fault. An abandoned half-open trial hands its slot back so the next call can finish the round.
+        AtomicBoolean settled = new AtomicBoolean();
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        result.whenComplete((paid, ex) -> {
+            if (settled.compareAndSet(false, true)) {
+                bulkhead.release();
+                if (!judgedOnSubmit) {
+                    circuitBreaker.abandon(ticket);
+                }
+            }
+        });
+        bounded.whenComplete((paid, ex) -> {
+            if (settled.compareAndSet(false, true)) {
+                bulkhead.release();
+                if (!judgedOnSubmit) {
+                    record(processLatency, start, ex == null);
+                }
+            }
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(paid);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public boolean revertPayment(BookingRequest request) {
+        // Not hedged: a second reversal request is not guaranteed to be harmless
+        return call(revertLatency, () -> delegate.revertPayment(request), false);
+    }
+
+    @Override
+    public boolean supportsRevert() {
+        return delegate.supportsRevert();
+    }
+
+    @Override
+    public boolean settlesByCustomer() {
+        return delegate.settlesByCustomer();
+    }
+
+    @Override
+    public PaymentStatus checkPaymentStatus(String transactionId, double requiredAmount) {
+        return call(statusLatency, () -> delegate.checkPaymentStatus(transactionId, requiredAmount), settings.hedgeEnabled());
+    }
+
+    private <T> T call(LatencyRecorder latency, Supplier<T> action, boolean hedge) {
+        admit();
+        long start = System.nanoTime();
+        boolean success = false;
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(action, executor);
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            record(latency, start, false);
+            throw e;
+        }
+        // The permit follows the real call, which may outlive our timeout
+        primary.whenComplete((value, ex) -> bulkhead.release());
+
+        try {
+            CompletableFuture<T> answer = hedge ? hedged(primary, action, latency) : primary;
+            T value = answer.get(settings.callTimeoutMs(), TimeUnit.MILLISECONDS);
+            success = true;
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+            throw new PaymentGatewayUnavailableException(method + " gateway did not answer within " + settings.callTimeoutMs() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayUnavailableException("Interrupted while calling the " + method + " gateway");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        } finally {
+            record(latency, start, success);
+        }
+    }
+
+    private <T> CompletableFuture<T> hedged(CompletableFuture<T> primary, Supplier<T> action, LatencyRecorder latency) {
+        CompletableFuture<T> answer = new CompletableFuture<>();
+        primary.whenComplete((value, ex) -> {
+            if (ex != null) {
+                answer.completeExceptionally(ex);
+            } else {
+                answer.complete(value);
+            }
+        });
+
+        long delay = settings.hedgeDelayMs() > 0 ? settings.hedgeDelayMs() : latency.percentile(0.95);
+        if (delay <= 0 || delay >= settings.callTimeoutMs()) {
+            return answer; // Not enough history yet, or no time left for a second try
+        }
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            // Only spare capacity is used for hedging, never the last bulkhead permit someone else needs
+            if (answer.isDone() || circuitBreaker.state() != CircuitBreaker.State.CLOSED || !bulkhead.tryAcquire()) {
+                return;
+            }
+            hedges.incrementAndGet();
+            CompletableFuture.supplyAsync(action, executor).whenComplete((value, ex) -> {
+                bulkhead.release();
+                if (ex == null && answer.complete(value)) {
+                    hedgeWins.incrementAndGet();
+                }
+            });
+        });
+        return answer;
+    }
+
+    // Returns the circuit breaker's ticket for the admitted call
+    private long admit() {
+        if (!bulkhead.tryAcquire()) {
+            rejectedBulkhead.incrementAndGet();
+            throw new PaymentGatewayUnavailableException(method + " gateway is at its limit of "
+                    + settings.maxConcurrent() + " concurrent calls");
+        }
+        long ticket = circuitBreaker.tryAcquire();
+        if (ticket < 0) {
+            bulkhead.release();
+            rejectedOpen.incrementAndGet();
+            throw new PaymentGatewayUnavailableException(method + " gateway is unavailable (circuit open)");
+        }
+        return ticket;
+    }
+
+    private void record(LatencyRecorder latency, long startNanos, boolean success) {
+        latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        if (success) {
+            circuitBreaker.onSuccess();
+        } else {
+            failures.incrementAndGet();
+            CircuitBreaker.State before = circuitBreaker.state();
+            circuitBreaker.onFailure();
+            if (before != CircuitBreaker.State.OPEN && circuitBreaker.state() == CircuitBreaker.State.OPEN) {
+                log.warn("Circuit for {} gateway opened for {} ms", method, settings.openMs());
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuit", circuitBreaker.state().name());
+        stats.put("inFlight", settings.maxConcurrent() - bulkhead.availablePermits());
+        stats.put("maxConcurrent", settings.maxConcurrent());
+        stats.put("rejectedBulkhead", rejectedBulkhead.get());
+        stats.put("rejectedCircuitOpen", rejectedOpen.get());
+        stats.put("failures", failures.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeWins", hedgeWins.get());
+        stats.put("processPayment", processLatency.snapshot());
+        stats.put("checkPaymentStatus", statusLatency.snapshot());
+        stats.put("revertPayment", revertLatency.snapshot());
+        return stats;
+    }
+}
@@ -0,0 +1,168 @@
+package com.movie.bookMyShow.service.payment;
+
+import com.movie.bookMyShow.dto.BookingRequest;
+import com.movie.bookMyShow.enums.PaymentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulated gateway for capacity tests, selected with payment method {@code SIM}.
+ * Latencies follow a configurable distribution and outcomes a configurable failure/timeout mix.
+ * HoldIds are random, so draws are not keyed by them: each payment takes the next number of a per-run
+ * sequence, and every draw comes from a generator seeded with {@code payment.simulator.seed} and that
+ * number. A replayed load test therefore sees the same mix of outcomes and latencies (the Nth payment
+ * of a run always behaves alike), and status checks agree with the payment result. Each reversal
+ * attempt draws afresh, so a retry can succeed where the first attempt failed. Waiting is done with
+ * delayed completion, not sleeping threads, except in the synchronous status and revert calls the
+ * interface requires.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "payment.simulator.enabled", havingValue = "true")
+public class SIMPaymentGateway implements PaymentGateway {
+
+    private enum Outcome { SUCCESS, FAILED, TIMEOUT }
+
+    private static final long FORGET_AFTER_MS = TimeUnit.MINUTES.toMillis(30); // Well past the payment window
+    private static final long SWEEP_EVERY = 10_000; // Payments between sweeps of forgotten holds
+
+    private final Executor simGatewayExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Draws> drawsByHold = new ConcurrentHashMap<>();
+
+    @Value("${payment.simulator.seed:42}")
+    private long seed;
+
+    @Value("${payment.simulator.latency.distribution:lognormal}")
+    private String distribution; // fixed, uniform, exponential or lognormal
+
+    @Value("${payment.simulator.latency.median-ms:1500}")
+    private double medianMs;
+
+    @Value("${payment.simulator.latency.sigma:0.5}")
+    private double sigma; // lognormal spread
+
+    @Value("${payment.simulator.latency.min-ms:0}")
+    private double minMs;
+
+    @Value("${payment.simulator.latency.max-ms:10000}")
+    private double maxMs; // Upper bound for uniform, cap for the others
+
+    @Value("${payment.simulator.status.median-ms:200}")
+    private double statusMedianMs;
+
+    @Value("${payment.simulator.revert.median-ms:500}")
+    private double revertMedianMs;
+
+    @Value("${payment.simulator.failure-rate:0.05}")
+    private double failureRate;
+
+    @Value("${payment.simulator.timeout-rate:0.01}")
+    private double timeoutRate; // The payment never answers; the caller's deadline decides
+
+    @Value("${payment.simulator.revert-failure-rate:0.02}")
+    private double revertFailureRate;
+
+    public SIMPaymentGateway(@Qualifier("simGatewayExecutor") Executor simGatewayExecutor) {
+        this.simGatewayExecutor = simGatewayExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processPayment(BookingRequest request) {
+        String holdId = request.getHoldId();
+        Draws draws = draws(holdId);
+        Outcome outcome = outcome(draws);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (outcome == Outcome.TIMEOUT) {
+            log.info("Simulated payment for holdId: {} will not answer", holdId);
+            return result;
+        }
+        long latency = latencyMs(random(draws.sequence, "process-latency", 0), medianMs);
+        log.info("Simulated payment for holdId: {} completes as {} in {} ms", holdId, outcome, latency);
+        CompletableFuture.delayedExecutor(latency, TimeUnit.MILLISECONDS, simGatewayExecutor)
+                .execute(() -> result.complete(outcome == Outcome.SUCCESS));
+        return result;
+    }
+
+    @Override
+    public boolean revertPayment(BookingRequest request) {
+        Draws draws = draws(request.getHoldId());
+        SplittableRandom random = random(draws.sequence, "revert", draws.reverts.incrementAndGet());
+        pause(latencyMs(random, revertMedianMs));
+        boolean success = random.nextDouble() >= revertFailureRate;
+        log.info("Simulated reversal for holdId: {} result: {}", request.getHoldId(), success);
+        return success;
+    }
+
+    @Override
+    public PaymentStatus checkPaymentStatus(String transactionId, double requiredAmount) {
+        // The booking flow passes the holdId as the reference for non-crypto payments
+        Draws draws = draws(transactionId);
+        pause(latencyMs(random(draws.sequence, "status", 0), statusMedianMs));
+        return switch (outcome(draws)) {
+            case SUCCESS -> PaymentStatus.SUCCESS;
+            case FAILED -> PaymentStatus.FAILED;
+            case TIMEOUT -> PaymentStatus.PENDING;
+        };
+    }
+
+    // A hold seen for the first time (a payment, or a check after a restart) takes the next sequence number
+    private Draws draws(String holdId) {
+        Draws draws = drawsByHold.computeIfAbsent(String.valueOf(holdId),
+                id -> new Draws(sequence.incrementAndGet(), System.currentTimeMillis(), new AtomicInteger()));
+        // Swept outside computeIfAbsent, which must not modify the map
+        if (draws.sequence % SWEEP_EVERY == 0) {
+            long cutoff = System.currentTimeMillis() - FORGET_AFTER_MS;
+            drawsByHold.values().removeIf(old -> old.createdAt < cutoff);
+        }
+        return draws;
+    }
+
+    private Outcome outcome(Draws draws) {
+        double draw = random(draws.sequence, "outcome", 0).nextDouble();
+        if (draw < timeoutRate) {
+            return Outcome.TIMEOUT;
+        }
+        return draw < timeoutRate + failureRate ? Outcome.FAILED : Outcome.SUCCESS;
+    }
+
+    // Independent stream per payment, purpose and attempt, reproducible from the seed alone
+    private SplittableRandom random(long sequence, String purpose, int attempt) {
+        long key = (31L * sequence + purpose.hashCode()) * 31L + attempt;
+        return new SplittableRandom(seed ^ (key * 0x9E3779B97F4A7C15L));
+    }
+
+    private long latencyMs(SplittableRandom random, double median) {
+        double sample = switch (distribution) {
+            case "fixed" -> median;
+            case "uniform" -> minMs + random.nextDouble() * (maxMs - minMs);
+            case "exponential" -> -median / Math.log(2) * Math.log(1 - random.nextDouble()); // Mean chosen so the median matches
+            case "lognormal" -> median * Math.exp(sigma * random.nextGaussian());
+            default -> throw new IllegalStateException("Unknown latency distribution: " + distribution);
+        };
+        return (long) Math.max(minMs, Math.min(maxMs, sample));
+    }
+
+    private record Draws(long sequence, long createdAt, AtomicInteger reverts) {
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
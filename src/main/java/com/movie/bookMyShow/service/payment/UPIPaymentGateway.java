@@ -3,18 +3,35 @@ package com.movie.bookMyShow.service.payment;
 import com.movie.bookMyShow.dto.BookingRequest;
 import com.movie.bookMyShow.enums.PaymentStatus;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 public class UPIPaymentGateway implements PaymentGateway {
-    
+
+    private final Executor upiGatewayExecutor;
+    private final UpiCallbackService callbackService;
+
+    @Value("${upi.webhook.fallback-poll-ms:60000}")
+    private long fallbackPollMs; // Poll the provider only if its callback has not arrived by then
+
+    public UPIPaymentGateway(@Qualifier("upiGatewayExecutor") Executor upiGatewayExecutor,
+                             UpiCallbackService callbackService) {
+        this.upiGatewayExecutor = upiGatewayExecutor;
+        this.callbackService = callbackService;
+    }
+
     @Override
-    @Async
     public CompletableFuture<Boolean> processPayment(BookingRequest request) {
+        if (callbackService.isEnabled()) {
+            return awaitCallback(request);
+        }
         return CompletableFuture.supplyAsync(() -> {
             log.info("Processing UPI payment for request: {}", request);
             try {
@@ -27,7 +44,30 @@ public class UPIPaymentGateway implements PaymentGateway {
                 log.error("Error processing UPI payment: {}", e.getMessage());
                 return false;
             }
+        }, upiGatewayExecutor);
+    }
+
+    @Override
+    public boolean settlesByCustomer() {
+        return callbackService.isEnabled(); // The simulated flow below is the gateway's own work
+    }
+
+    // Settled by the provider's webhook; one status poll after fallbackPollMs covers a lost callback
+    private CompletableFuture<Boolean> awaitCallback(BookingRequest request) {
+        String holdId = request.getHoldId();
+        log.info("Awaiting UPI callback for holdId {}", holdId);
+        CompletableFuture<Boolean> result = callbackService.register(holdId);
+        CompletableFuture.delayedExecutor(fallbackPollMs, TimeUnit.MILLISECONDS, upiGatewayExecutor).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            log.info("No UPI callback for holdId {} after {} ms, polling provider", holdId, fallbackPollMs);
+            PaymentStatus status = checkPaymentStatus(holdId, request.getPrice());
+            if (status == PaymentStatus.SUCCESS || status == PaymentStatus.FAILED) {
+                result.complete(status == PaymentStatus.SUCCESS);
+            }
         });
+        return result;
     }
 
     @Override
@@ -48,6 +88,10 @@ public class UPIPaymentGateway implements PaymentGateway {
     @Override
     public PaymentStatus checkPaymentStatus(String transactionId, double requiredAmount) {
         log.info("Checking UPI payment status for transaction: {} with amount: {}", transactionId, requiredAmount);
+        PaymentStatus reported = callbackService.isEnabled() ? callbackService.result(transactionId) : null;
+        if (reported != null) {
+            return reported;
+        }
         try {
             // Simulate UPI payment status check
             Thread.sleep(12000);
@@ -0,0 +1,226 @@
+package com.movie.bookMyShow.service.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movie.bookMyShow.dto.ApiResponse;
+import com.movie.bookMyShow.dto.UpiWebhookEvent;
+import com.movie.bookMyShow.enums.PaymentState;
+import com.movie.bookMyShow.enums.PaymentStatus;
+import com.movie.bookMyShow.model.PaymentRecord;
+import com.movie.bookMyShow.repo.PaymentRecordRepo;
+import com.movie.bookMyShow.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Receives the UPI provider's payment callbacks so pending payments settle when the customer pays
+ * instead of when the next status poll happens. Callbacks are HMAC-verified and deduplicated by
+ * event id in Redis. The result is stored per holdId, completes the waiting payment future if this
+ * node holds it, and is published on a Redis channel for the node that does. The payment record's
+ * timer is also brought forward, so a flow that lost its future (restart) picks the result up too.
+ */
+@Slf4j
+@Service
+public class UpiCallbackService implements MessageListener {
+    public static final String CHANNEL = "upi-callbacks";
+    private static final String EVENT_PREFIX = "upi:webhook:event:";
+    private static final String RESULT_PREFIX = "upi:webhook:result:";
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final Duration PROCESSING_CLAIM = Duration.ofMinutes(1); // Outlives any single delivery
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final PaymentRecordRepo paymentRecordRepo;
+    private final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+
+    @Value("${upi.webhook.enabled:false}")
+    private boolean enabled;
+
+    @Value("${upi.webhook.secret:}")
+    private String secret;
+
+    @Value("${upi.webhook.tolerance-seconds:300}")
+    private long toleranceSeconds; // Replay window for the signed timestamp
+
+    @Value("${upi.webhook.dedup-ttl-hours:24}")
+    private long dedupTtlHours;
+
+    public UpiCallbackService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                              PaymentRecordRepo paymentRecordRepo, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.paymentRecordRepo = paymentRecordRepo;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Future completed with the payment's outcome when its callback arrives. A result that arrived
+     * before the registration (fast customer, or a retry) completes it immediately.
+     */
+    public CompletableFuture<Boolean> register(String holdId) {
+        CompletableFuture<Boolean> future = pending.computeIfAbsent(holdId, k -> new CompletableFuture<>());
+        future.whenComplete((result, error) -> pending.remove(holdId, future));
+
+        PaymentStatus known = result(holdId);
+        if (known != null) {
+            future.complete(known == PaymentStatus.SUCCESS);
+        }
+        return future;
+    }
+
+    // Outcome reported by the provider, or null if no final callback has arrived for this holdId
+    public PaymentStatus result(String holdId) {
+        String status = redisTemplate.opsForValue().get(RESULT_PREFIX + holdId);
+        return status == null ? null : PaymentStatus.valueOf(status);
+    }
+
+    public ApiResponse handle(String body, String timestamp, String signature) {
+        if (!enabled) {
+            return new ApiResponse(404, "UPI webhooks are not enabled");
+        }
+        if (!verify(body, timestamp, signature)) {
+            log.warn("Rejected UPI webhook with invalid signature or timestamp {}", timestamp);
+            return new ApiResponse(401, "Invalid webhook signature");
+        }
+
+        UpiWebhookEvent event;
+        try {
+            event = objectMapper.readValue(body, UpiWebhookEvent.class);
+        } catch (JsonProcessingException e) {
+            return new ApiResponse(400, "Unreadable webhook payload");
+        }
+        if (event.getTransactionId() == null || event.getStatus() == null) {
+            return new ApiResponse(400, "transactionId and status are required");
+        }
+
+        // Providers retry until they see a 2xx; the first delivery of an event wins, later ones are acknowledged only.
+        // The claim is short until the event is processed, so a delivery that fails or dies half-way can be retried.
+        String eventId = event.getEventId() != null ? event.getEventId() : event.getTransactionId() + ":" + event.getStatus();
+        String eventKey = EVENT_PREFIX + eventId;
+        String claim = UUID.randomUUID().toString();
+        Boolean first = redisTemplate.opsForValue().setIfAbsent(eventKey, claim, PROCESSING_CLAIM);
+        if (!Boolean.TRUE.equals(first)) {
+            log.info("Duplicate UPI webhook {} for transaction {}", eventId, event.getTransactionId());
+            return new ApiResponse(200, "Duplicate event ignored");
+        }
+
+        ApiResponse response;
+        try {
+            response = process(eventId, event);
+        } catch (RuntimeException e) {
+            // Let the provider's retry through instead of acknowledging it as a duplicate. If our claim
+            // expired meanwhile, another delivery owns the key now and keeps it.
+            RedisScripts.deleteIfEquals(redisTemplate, eventKey, claim);
+            log.error("UPI webhook {} for transaction {} failed: {}", eventId, event.getTransactionId(), e.getMessage());
+            throw e;
+        }
+        redisTemplate.expire(eventKey, Duration.ofHours(dedupTtlHours));
+        return response;
+    }
+
+    private ApiResponse process(String eventId, UpiWebhookEvent event) {
+        PaymentStatus status = switch (event.getStatus().toUpperCase()) {
+            case "SUCCESS" -> PaymentStatus.SUCCESS;
+            case "FAILED" -> PaymentStatus.FAILED;
+            default -> null;
+        };
+        if (status == null) {
+            log.info("UPI webhook {} for transaction {} is not final: {}", eventId, event.getTransactionId(), event.getStatus());
+            return new ApiResponse(200, "Event acknowledged");
+        }
+
+        String holdId = event.getTransactionId();
+        if (status == PaymentStatus.SUCCESS) {
+            PaymentRecord paymentRecord = paymentRecordRepo.findFirstByHoldIdOrderByIdDesc(holdId).orElse(null);
+            if (paymentRecord == null) {
+                log.warn("UPI webhook {} reports a payment for unknown transaction {}", eventId, holdId);
+                return new ApiResponse(200, "Unknown transaction");
+            }
+            status = evaluate(event.getAmount(), paymentRecord.getAmount());
+            if (status == PaymentStatus.INVALID_AMOUNT) {
+                log.warn("UPI webhook {}: transaction {} paid {} instead of {}",
+                        eventId, holdId, event.getAmount(), paymentRecord.getAmount());
+            }
+        }
+        redisTemplate.opsForValue().set(RESULT_PREFIX + holdId, status.name(), Duration.ofHours(dedupTtlHours));
+        if (!complete(holdId, status)) {
+            redisTemplate.convertAndSend(CHANNEL, holdId + "|" + status.name());
+        }
+        paymentRecordRepo.expediteHold(holdId, List.of(PaymentState.AWAITING), LocalDateTime.now());
+        log.info("UPI webhook {}: transaction {} is {}", eventId, holdId, status);
+        return new ApiResponse(200, "Event processed");
+    }
+
+    // A success only counts if the customer paid at least the booking's price; paise are the smallest unit
+    static PaymentStatus evaluate(Double paidAmount, double requiredAmount) {
+        if (paidAmount == null || paidAmount < requiredAmount - 0.005) {
+            return PaymentStatus.INVALID_AMOUNT;
+        }
+        return PaymentStatus.SUCCESS;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length == 2) {
+            complete(parts[0], PaymentStatus.valueOf(parts[1]));
+        }
+    }
+
+    private boolean complete(String holdId, PaymentStatus status) {
+        CompletableFuture<Boolean> future = pending.get(holdId);
+        return future != null && future.complete(status == PaymentStatus.SUCCESS);
+    }
+
+    // Signature is hex HMAC-SHA256 over "<timestamp>.<raw body>", timestamp in epoch seconds
+    private boolean verify(String body, String timestamp, String signature) {
+        if (secret == null || secret.isBlank()) {
+            log.error("upi.webhook.secret is not set; rejecting all UPI webhooks");
+            return false;
+        }
+        long sentAt;
+        try {
+            sentAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - sentAt) > toleranceSeconds) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+            byte[] expected = mac.doFinal((timestamp + "." + body).getBytes(StandardCharsets.UTF_8));
+            byte[] given = HexFormat.of().parseHex(signature.trim().toLowerCase());
+            return MessageDigest.isEqual(expected, given);
+        } catch (IllegalArgumentException e) {
+            return false; // Not hex
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -5,39 +5,29 @@ import org.web3j.crypto.Keys;
 import org.bitcoinj.crypto.HDKeyDerivation;
 import org.bitcoinj.crypto.DeterministicKey;
 import java.math.BigInteger;
+import java.util.Arrays;
 
 
 public class AddressUtil {
 
-//    public static String deriveEthAddressFromXpub(String xpub, int index) {
-//        System.out.print("\nCreating address for index: " + index +"\n");
-//        DeterministicKey parent = DeterministicKey.deserializeB58(xpub, null);
-//        DeterministicKey child = HDKeyDerivation.deriveChildKey(parent, new ChildNumber(index, false));
-//        return "0x" + Keys.getAddress(String.valueOf(child.getPubKeyPoint()));
-//    }
-//    public static String deriveEthAddressFromXpub(String xpub, int index) {
-//        System.out.println("\nCreating address for index: " + index + "\n");
-//
-//        DeterministicKey parentKey = DeterministicKey.deserializeB58(xpub, MainNetParams.get());
-//        DeterministicKey childKey = HDKeyDerivation.deriveChildKey(parentKey, index);
-//        byte[] publicKeyBytes = childKey.getPubKey();
-//        ECKey ecKey = ECKey.fromPublicOnly(publicKeyBytes);
-//
-//        return "0x" + Keys.getAddress(ecKey.getPublicKeyAsHex());
-////        return childKey.serializePubB58(MainNetParams.get());
-//
-//    }
-public static String deriveEthAddressFromXpub(String xpub, int index) {
-    System.out.println("\nCreating address for index: " + index + "\n");
-
-    // 1. Deserialize and derive key
-    DeterministicKey parentKey = DeterministicKey.deserializeB58(xpub, MainNetParams.get());
-    DeterministicKey childKey = HDKeyDerivation.deriveChildKey(parentKey, index);
-
-    // 2. Convert to Ethereum address
-    byte[] pubKeyBytes = childKey.getPubKey();
-    BigInteger publicKey = new BigInteger(1, pubKeyBytes); // Using raw bytes
-
-    return "0x" + Keys.getAddress(publicKey);
+    // Deserializing the xpub is the expensive part; parse once and reuse the key for every child
+    public static DeterministicKey parseXpub(String xpub) {
+        return DeterministicKey.deserializeB58(xpub, MainNetParams.get());
+    }
+
+    public static String deriveEthAddress(DeterministicKey parentKey, int index) {
+        // 1. Derive the non-hardened child key
+        DeterministicKey childKey = HDKeyDerivation.deriveChildKey(parentKey, index);
+
+        // 2. Convert to Ethereum address: keccak of the uncompressed point (X || Y, without the 0x04 prefix).
+        // getPubKey() is the 33-byte compressed form, which hashes to an address no wallet would derive.
+        byte[] uncompressed = childKey.getPubKeyPoint().getEncoded(false);
+        BigInteger publicKey = new BigInteger(1, Arrays.copyOfRange(uncompressed, 1, uncompressed.length));
+
+        return "0x" + Keys.getAddress(publicKey);
+    }
+
+    public static String deriveEthAddressFromXpub(String xpub, int index) {
+        return deriveEthAddress(parseXpub(xpub), index);
+    }
 }
-}
\ No newline at end of file
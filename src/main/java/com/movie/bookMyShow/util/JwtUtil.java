@@ -16,6 +16,7 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretKeyString;
     private static final Long EXPIRATION_TIME = 1000 * 60 * 60 * 24 * 30L;
+    private static final String CUSTOMER_ROLE = "CUSTOMER";
 
     public Long getExpirationTime(){
         return EXPIRATION_TIME;
@@ -59,6 +60,28 @@ public class JwtUtil {
                 .signWith(getSigningKey(), Jwts.SIG.HS256)
                 .compact();
     }
+
+    // Customer session for a verified phone number; short-lived, and told apart from city/admin tokens by its role
+    public String generateCustomerToken(String phoneNumber, long ttlMillis) {
+        return Jwts.builder()
+                .claims(Map.of("role", CUSTOMER_ROLE))
+                .subject(phoneNumber)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    // Phone number of a valid customer token, or null for anything else (expired, forged, city or admin token)
+    public String extractCustomerPhone(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            return CUSTOMER_ROLE.equals(claims.get("role")) ? claims.getSubject() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private Claims extractAllClaims(String token) {
         return Jwts.parser()
                 .verifyWith(getSigningKey()) // ✅ Latest way to verify signature
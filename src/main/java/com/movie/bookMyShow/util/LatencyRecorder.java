@@ -0,0 +1,59 @@
+package com.movie.bookMyShow.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last {@code capacity} latencies and reports percentiles over them.
+ * Cheap enough to call on every gateway request; percentiles are computed on read.
+ */
+public class LatencyRecorder {
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+    }
+
+    // Returns -1 when nothing has been recorded yet
+    public long percentile(double p) {
+        long[] sorted = sortedSamples();
+        return sorted.length == 0 ? -1 : percentile(sorted, p);
+    }
+
+    public Map<String, Object> snapshot() {
+        long[] sorted = sortedSamples();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        synchronized (this) {
+            snapshot.put("count", count);
+        }
+        if (sorted.length > 0) {
+            snapshot.put("p50Ms", percentile(sorted, 0.50));
+            snapshot.put("p95Ms", percentile(sorted, 0.95));
+            snapshot.put("p99Ms", percentile(sorted, 0.99));
+            snapshot.put("maxMs", sorted[sorted.length - 1]);
+        }
+        return snapshot;
+    }
+
+    private synchronized long[] sortedSamples() {
+        long[] copy = Arrays.copyOf(samples, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,116 @@
+package com.movie.bookMyShow.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor that counts what it runs: tasks waiting, tasks running, completed and rejected.
+ * Backed either by virtual threads (one per task, when the JDK has them) or by a bounded,
+ * named platform thread pool.
+ */
+public class MonitoredExecutor implements Executor {
+    private final String name;
+    private final ExecutorService delegate;
+    private final boolean virtual;
+    private final int maxThreads;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private MonitoredExecutor(String name, ExecutorService delegate, boolean virtual, int maxThreads) {
+        this.name = name;
+        this.delegate = delegate;
+        this.virtual = virtual;
+        this.maxThreads = maxThreads;
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from JDK 21; looked up reflectively so we still build on 17
+    public static boolean virtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static MonitoredExecutor virtual(String name) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new MonitoredExecutor(name, executor, true, 0);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads are not available on this JDK", e);
+        }
+    }
+
+    public static MonitoredExecutor bounded(String name, int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), namedThreads(name));
+        executor.allowCoreThreadTimeOut(true);
+        return new MonitoredExecutor(name, executor, false, threads);
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("type", virtual ? "virtual" : "platform");
+        stats.put("maxThreads", virtual ? "unbounded" : maxThreads);
+        stats.put("queueDepth", queued.get());
+        stats.put("activeCount", active.get());
+        stats.put("peakActiveCount", peakActive.get());
+        stats.put("completedCount", completed.get());
+        stats.put("rejectedCount", rejected.get());
+        return stats;
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,28 @@
+package com.movie.bookMyShow.util;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Small atomic Redis operations that need a Lua script because they read and write in one step.
+ */
+public final class RedisScripts {
+    private static final RedisScript<Long> DELETE_IF_EQUALS = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private RedisScripts() {
+    }
+
+    /**
+     * Deletes the key only while it still holds {@code expected}, so a claim that expired and was
+     * taken by someone else is left alone. Returns whether the key was deleted.
+     */
+    public static boolean deleteIfEquals(RedisTemplate<String, String> redisTemplate, String key, String expected) {
+        Long deleted = redisTemplate.execute(DELETE_IF_EQUALS, List.of(key), expected);
+        return deleted != null && deleted > 0;
+    }
+}
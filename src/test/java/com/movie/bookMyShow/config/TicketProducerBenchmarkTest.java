@@ -0,0 +1,116 @@
+package com.movie.bookMyShow.config;
+
+import com.movie.bookMyShow.dto.SeatDTO;
+import com.movie.bookMyShow.dto.TicketDTO;
+import com.movie.bookMyShow.enums.SeatCategory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ticket publishing throughput against an embedded broker: the producer built by {@link KafkaProducer}
+ * with Kafka's defaults (no linger, 16 KiB batches, no compression) versus the tuned settings
+ * (10 ms linger, 64 KiB batches, lz4). Both keep idempotence and acks=all, like the outbox relay.
+ * Reports messages per second and records per produce request.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 12, topics = TicketProducerBenchmarkTest.TOPIC)
+class TicketProducerBenchmarkTest {
+    static final String TOPIC = "book_movie_benchmark";
+    private static final int MESSAGES = 20_000;
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    @Test
+    void tunedProducerBatchesMoreTicketsPerRequest(EmbeddedKafkaBroker broker) {
+        Result defaults = measure(broker, "defaults", 0, 16384, "none");
+        Result tuned = measure(broker, "tuned", 10, 65536, "lz4");
+
+        log.info("Ticket producer throughput:\n{}\n{}", defaults, tuned);
+        assertTrue(tuned.recordsPerRequest() > defaults.recordsPerRequest(),
+                "tuned producer should put more tickets in each request: " + tuned + " vs " + defaults);
+    }
+
+    private Result measure(EmbeddedKafkaBroker broker, String name, int lingerMs, int batchSize, String compression) {
+        KafkaProducer config = new KafkaProducer();
+        ReflectionTestUtils.setField(config, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(config, "lingerMs", lingerMs);
+        ReflectionTestUtils.setField(config, "batchSize", batchSize);
+        ReflectionTestUtils.setField(config, "compressionType", compression);
+        ReflectionTestUtils.setField(config, "idempotence", true);
+        ReflectionTestUtils.setField(config, "acks", "all");
+
+        DefaultKafkaProducerFactory<String, TicketDTO> factory =
+                (DefaultKafkaProducerFactory<String, TicketDTO>) config.bookMovieProducerFactory();
+        KafkaTemplate<String, TicketDTO> template = new KafkaTemplate<>(factory);
+        try {
+            double[] rates = new double[MEASURED_RUNS];
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                long start = System.nanoTime();
+                List<CompletableFuture<SendResult<String, TicketDTO>>> sends = new ArrayList<>(MESSAGES);
+                for (int i = 0; i < MESSAGES; i++) {
+                    // Keyed by holdId, as the outbox relay does
+                    sends.add(template.send(TOPIC, name + "-" + run + "-" + i, ticket(i)));
+                }
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+                long elapsedNanos = System.nanoTime() - start;
+                assertEquals(MESSAGES, sends.stream().filter(send -> !send.isCompletedExceptionally()).count());
+                if (run >= WARMUP_RUNS) {
+                    rates[run - WARMUP_RUNS] = MESSAGES * 1e9 / elapsedNanos;
+                }
+            }
+            Arrays.sort(rates);
+            return new Result(name, rates[MEASURED_RUNS / 2], metric(template, "records-per-request-avg"),
+                    metric(template, "compression-rate-avg"));
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static double metric(KafkaTemplate<String, TicketDTO> template, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : template.metrics().entrySet()) {
+            if (entry.getKey().name().equals(name) && entry.getKey().group().equals("producer-metrics")) {
+                return ((Number) entry.getValue().metricValue()).doubleValue();
+            }
+        }
+        throw new IllegalStateException("Producer metric " + name + " not found");
+    }
+
+    private static TicketDTO ticket(int i) {
+        List<SeatDTO> seats = new ArrayList<>();
+        for (long seat = 1; seat <= 4; seat++) {
+            seats.add(new SeatDTO(seat + i, 'F', seat, SeatCategory.GOLD, "F" + seat));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return new TicketDTO((long) (i % 50), "Interstellar", "PVR Phoenix Marketcity", now.plusDays(1),
+                seats, "98765" + String.format("%05d", i % 100_000), now);
+    }
+
+    private record Result(String name, double messagesPerSecond, double recordsPerRequest, double compressionRate) {
+        @Override
+        public String toString() {
+            return String.format("%-8s %,10.0f msg/s, %6.1f records/request, compression rate %.2f",
+                    name, messagesPerSecond, recordsPerRequest, compressionRate);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.BookingRequest;
+import com.movie.bookMyShow.dto.BookingResponse;
+import com.movie.bookMyShow.enums.SeatCategory;
+import com.movie.bookMyShow.model.Screen;
+import com.movie.bookMyShow.model.Seat;
+import com.movie.bookMyShow.model.Show;
+import com.movie.bookMyShow.repo.BookingRepo;
+import com.movie.bookMyShow.repo.SeatRepo;
+import com.movie.bookMyShow.repo.ShowRepo;
+import com.movie.bookMyShow.service.payment.Crypto.CryptoGatewayFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many clients starting bookings for the same hot block of one show, through the real
+ * {@link BookingService#initiateBooking} and {@link SeatLayoutCache}. The Redis hold is a mock with
+ * a fixed round trip and payment is a no-op, so what is measured is everything else on the path.
+ * If that path serialized per screen (row locks, or a lock around the layout read) throughput would
+ * be capped near one booking per hold round trip; the benchmark asserts it stays well above that and
+ * that the seat table is read once, not per booking.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class SeatContentionBenchmarkTest {
+    private static final long SHOW_ID = 1L;
+    private static final long SCREEN_ID = 1L;
+    private static final int SEATS = 200;
+    private static final int HOT_SEATS = 40;    // Everyone wants the middle of the theatre
+    private static final int SEATS_PER_BOOKING = 4;
+    private static final int THREADS = 16;
+    private static final int BOOKINGS_PER_THREAD = 50;
+    private static final long HOLD_MILLIS = 2;  // Redis round trip for the hold
+
+    private SeatRepo seatRepo;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        Screen screen = new Screen();
+        screen.setScreenId(SCREEN_ID);
+        Show show = new Show();
+        show.setShowId(SHOW_ID);
+        show.setScreen(screen);
+
+        List<Seat> seats = new ArrayList<>();
+        for (long id = 1; id <= SEATS; id++) {
+            seats.add(new Seat(id, (char) ('A' + (id - 1) / 20), (id - 1) % 20 + 1, screen, SeatCategory.SILVER));
+        }
+        seatRepo = mock(SeatRepo.class);
+        when(seatRepo.findByScreen_ScreenId(anyLong())).thenReturn(seats);
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        SeatLayoutCache seatLayoutCache = new SeatLayoutCache(seatRepo, redisTemplate, mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(seatLayoutCache, "ttlMs", 600_000L);
+
+        ShowRepo showRepo = mock(ShowRepo.class);
+        when(showRepo.findById(SHOW_ID)).thenReturn(Optional.of(show));
+        SeatHoldService seatHoldService = mock(SeatHoldService.class);
+        when(seatHoldService.holdSeats(anyLong(), anyList())).thenAnswer(invocation -> {
+            Thread.sleep(HOLD_MILLIS);
+            return UUID.randomUUID().toString();
+        });
+
+        bookingService = new BookingService(showRepo, seatLayoutCache, seatHoldService,
+                mock(PaymentService.class), mock(BookingRepo.class), mock(CryptoGatewayFactory.class),
+                mock(TicketSnapshotStore.class));
+    }
+
+    @Test
+    void initiationDoesNotSerializeOnTheScreen() throws Exception {
+        run(5); // Warm-up, so JIT and the first layout load do not count
+
+        double perSecond = run(BOOKINGS_PER_THREAD);
+        double serializedCeiling = 1000.0 / HOLD_MILLIS;
+        log.info("Booking initiation, {} threads on {} hot seats: {} bookings/s (serialized ceiling {}/s)",
+                THREADS, HOT_SEATS, String.format("%.0f", perSecond), String.format("%.0f", serializedCeiling));
+
+        assertTrue(perSecond > 2 * serializedCeiling,
+                perSecond + " bookings/s is close to one booking per hold round trip");
+        verify(seatRepo, times(1)).findByScreen_ScreenId(any());
+    }
+
+    // Returns initiated bookings per second
+    private double run(int bookingsPerThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < bookingsPerThread; i++) {
+                    BookingResponse response = bookingService.initiateBooking(
+                            new BookingRequest(SHOW_ID, hotSeats(), "UPI", "9876543210"));
+                    assertNotNull(response.getHoldId());
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(THREADS, workers.size());
+        return THREADS * bookingsPerThread * 1e9 / elapsed;
+    }
+
+    // Distinct seats from the hot block in the middle of the screen
+    private static List<Long> hotSeats() {
+        long first = (SEATS - HOT_SEATS) / 2 + 1;
+        return ThreadLocalRandom.current().longs(first, first + HOT_SEATS)
+                .distinct()
+                .limit(SEATS_PER_BOOKING)
+                .boxed()
+                .toList();
+    }
+}
@@ -0,0 +1,150 @@
+package com.movie.bookMyShow.service;
+
+import com.movie.bookMyShow.dto.MovieTarget;
+import com.movie.bookMyShow.dto.ScheduleRequest;
+import com.movie.bookMyShow.dto.ScheduleResponse;
+import com.movie.bookMyShow.dto.ShowDTO;
+import com.movie.bookMyShow.model.Movie;
+import com.movie.bookMyShow.model.Screen;
+import com.movie.bookMyShow.model.Theatre;
+import com.movie.bookMyShow.repo.MovieRepo;
+import com.movie.bookMyShow.repo.ScreenRepo;
+import com.movie.bookMyShow.repo.ShowRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Packs a 20-screen multiplex for a full week (09:00-01:00, 25 minutes of buffers) and reports
+ * planning time and utilization. Repositories are mocked, so only the packer is measured.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ShowSchedulerBenchmarkTest {
+    private static final int SCREENS = 20;
+    private static final int DAYS = 7;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+    private static final long THEATRE_ID = 1L;
+    private static final double MAX_MEDIAN_MS = 500;
+
+    // Mixed lineup: short animation to three-hour epics
+    private static final int[] DURATIONS = {95, 105, 118, 124, 132, 140, 150, 165, 178, 190};
+
+    private ShowSchedulerService scheduler;
+    private ScheduleRequest request;
+
+    @BeforeEach
+    void setUp() {
+        Theatre theatre = new Theatre();
+        theatre.setTheatreId(THEATRE_ID);
+
+        List<Screen> screens = new ArrayList<>();
+        for (long id = 1; id <= SCREENS; id++) {
+            Screen screen = new Screen();
+            screen.setScreenId(id);
+            screen.setTheatre(theatre);
+            screens.add(screen);
+        }
+        List<Movie> movies = new ArrayList<>();
+        List<MovieTarget> targets = new ArrayList<>();
+        for (int i = 0; i < DURATIONS.length; i++) {
+            Movie movie = new Movie();
+            movie.setMovieId(i + 1);
+            movie.setDuration(DURATIONS[i]);
+            movies.add(movie);
+            // More demand than the week can hold, so the packer has to fill every gap
+            targets.add(new MovieTarget(i + 1, 100));
+        }
+
+        MovieRepo movieRepo = mock(MovieRepo.class);
+        ScreenRepo screenRepo = mock(ScreenRepo.class);
+        ShowRepo showRepo = mock(ShowRepo.class);
+        when(movieRepo.findAllById(any())).thenReturn(movies);
+        when(screenRepo.findAllById(any())).thenReturn(screens);
+        when(showRepo.findSlotsByScreenId(anyLong())).thenReturn(List.of());
+
+        scheduler = new ShowSchedulerService();
+        ReflectionTestUtils.setField(scheduler, "movieRepo", movieRepo);
+        ReflectionTestUtils.setField(scheduler, "screenRepo", screenRepo);
+        ReflectionTestUtils.setField(scheduler, "showScheduleIndex", new ShowScheduleIndex(showRepo));
+        ReflectionTestUtils.setField(scheduler, "showService", mock(ShowService.class));
+
+        request = new ScheduleRequest();
+        request.setTheatreId(THEATRE_ID);
+        request.setScreenIds(screens.stream().map(Screen::getScreenId).collect(Collectors.toList()));
+        request.setMovies(targets);
+        request.setFromDate(LocalDate.now().plusDays(1));
+        request.setToDate(request.getFromDate().plusDays(DAYS - 1));
+        request.setOpeningTime(LocalTime.of(9, 0));
+        request.setClosingTime(LocalTime.of(1, 0));
+        request.setCleaningBufferMinutes(15);
+        request.setAdBufferMinutes(10);
+        request.setCommit(false);
+    }
+
+    @Test
+    void packsTwentyScreensForAWeek() {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            scheduler.schedule(request);
+        }
+
+        long[] nanos = new long[MEASURED_RUNS];
+        ScheduleResponse response = null;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            response = scheduler.schedule(request);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+
+        assertEquals(200, response.getStatus());
+        assertFalse(response.getShows().isEmpty());
+        assertConflictFree(response.getShows(), request.getCleaningBufferMinutes() + request.getAdBufferMinutes());
+        assertEquals(SCREENS, response.getScreenUtilization().size());
+        // 16 open hours a day with 25-minute turnarounds caps this near 0.85; much lower means the packer left gaps
+        assertTrue(response.getUtilization() > 0.75, "utilization " + response.getUtilization());
+
+        double medianMs = nanos[MEASURED_RUNS / 2] / 1e6;
+        log.info("Scheduler, {} screens x {} days: {} shows, utilization {}, median {} ms, p90 {} ms, max {} ms",
+                SCREENS, DAYS, response.getShows().size(), String.format("%.3f", response.getUtilization()),
+                String.format("%.1f", medianMs), String.format("%.1f", nanos[MEASURED_RUNS * 9 / 10] / 1e6),
+                String.format("%.1f", nanos[MEASURED_RUNS - 1] / 1e6));
+        // Interactive planning: a week for a whole multiplex has to come back well within a request timeout
+        assertTrue(medianMs < MAX_MEDIAN_MS, "median " + medianMs + " ms");
+    }
+
+    private void assertConflictFree(List<ShowDTO> shows, int gapMinutes) {
+        Map<Long, List<ShowDTO>> byScreen = shows.stream().collect(Collectors.groupingBy(ShowDTO::getScreenId));
+        for (List<ShowDTO> screenShows : byScreen.values()) {
+            screenShows.sort(Comparator.comparing(ShowDTO::getStartTime));
+            for (int i = 1; i < screenShows.size(); i++) {
+                ShowDTO previous = screenShows.get(i - 1);
+                ShowDTO show = screenShows.get(i);
+                assertFalse(show.getStartTime().isBefore(previous.getEndTime().plusMinutes(gapMinutes)),
+                        "Screen " + show.getScreenId() + ": show at " + show.getStartTime()
+                                + " starts inside the previous show or its buffer");
+            }
+        }
+    }
+}
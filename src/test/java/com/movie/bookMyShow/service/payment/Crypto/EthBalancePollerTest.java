@@ -0,0 +1,212 @@
+package com.movie.bookMyShow.service.payment.Crypto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives {@link EthBalancePoller} against a stub JSON-RPC node on localhost, so the real web3j
+ * client builds and parses the eth_getBalance batches.
+ */
+class EthBalancePollerTest {
+    private static final BigInteger ONE_ETH = BigInteger.TEN.pow(18);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, BigInteger> balances = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failNextRequest = new AtomicBoolean();
+
+    private HttpServer node;
+    private Web3j web3j;
+    private EthBalancePoller poller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        node = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        node.createContext("/", this::handle);
+        node.start();
+
+        web3j = Web3j.build(new HttpService("http://localhost:" + node.getAddress().getPort() + "/"));
+        poller = new EthBalancePoller(web3j, Runnable::run);
+        ReflectionTestUtils.setField(poller, "scanInterval", 1);
+        ReflectionTestUtils.setField(poller, "paymentTimeoutMinutes", 30);
+        ReflectionTestUtils.setField(poller, "batchSize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        poller.stop();
+        web3j.shutdown();
+        node.stop(0);
+    }
+
+    @Test
+    void pollsAllPendingAddressesInBatchesOfConfiguredSize() {
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            String address = address(i);
+            if (i % 10 == 0) {
+                balances.put(address, ONE_ETH);
+            }
+            futures.add(poller.watch("hold-" + i, address, 1.0));
+        }
+
+        poll();
+
+        assertEquals(List.of(50, 100, 100), sorted(batchSizes));
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<Boolean> future = futures.get(i);
+            if (i % 10 == 0) {
+                assertTrue(future.isDone() && future.join(), "paid address " + i + " should complete");
+            } else {
+                assertFalse(future.isDone(), "unpaid address " + i + " should stay pending");
+            }
+        }
+
+        // Paid deposits are dropped, so the next tick only asks for the 225 still open
+        batchSizes.clear();
+        poll();
+        assertEquals(List.of(25, 100, 100), sorted(batchSizes));
+    }
+
+    @Test
+    void wrongAmountIsNotTreatedAsPaid() {
+        String address = address(1);
+        balances.put(address, ONE_ETH.divide(BigInteger.TWO));
+        CompletableFuture<Boolean> future = poller.watch("hold-1", address, 1.0);
+
+        poll();
+
+        assertFalse(future.isDone());
+    }
+
+    @Test
+    void failedBatchLeavesDepositsPendingForTheNextTick() {
+        String address = address(7);
+        balances.put(address, ONE_ETH);
+        CompletableFuture<Boolean> future = poller.watch("hold-7", address, 1.0);
+
+        failNextRequest.set(true);
+        poll();
+        assertFalse(future.isDone());
+
+        poll();
+        assertTrue(future.isDone() && future.join());
+    }
+
+    @Test
+    void failedBatchDoesNotStopTheRemainingBatches() {
+        ReflectionTestUtils.setField(poller, "batchSize", 2);
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            balances.put(address(i), ONE_ETH);
+            futures.add(poller.watch("hold-" + i, address(i), 1.0));
+        }
+
+        failNextRequest.set(true);
+        poll();
+
+        assertEquals(2, futures.stream().filter(CompletableFuture::isDone).count());
+    }
+
+    @Test
+    void expiredDepositCompletesUnpaidWithoutAnRpcCall() {
+        ReflectionTestUtils.setField(poller, "paymentTimeoutMinutes", -1);
+        CompletableFuture<Boolean> future = poller.watch("hold-9", address(9), 1.0);
+
+        poll();
+
+        assertTrue(future.isDone());
+        assertFalse(future.join());
+        assertTrue(batchSizes.isEmpty());
+    }
+
+    @Test
+    void watchingTheSameAddressTwiceSharesOneRequest() {
+        String address = address(0xabc);
+        CompletableFuture<Boolean> first = poller.watch("hold-3", address, 1.0);
+        CompletableFuture<Boolean> second = poller.watch("hold-3", "0x" + address.substring(2).toUpperCase(Locale.ROOT), 1.0);
+
+        poll();
+
+        assertSame(first, second);
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    private void poll() {
+        ReflectionTestUtils.invokeMethod(poller, "poll");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode body = mapper.readTree(exchange.getRequestBody());
+        if (failNextRequest.getAndSet(false)) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+
+        JsonNode calls = body.isArray() ? body : mapper.createArrayNode().add(body);
+        batchSizes.add(calls.size());
+        ArrayNode results = mapper.createArrayNode();
+        for (JsonNode call : calls) {
+            assertEquals("eth_getBalance", call.get("method").asText());
+            String address = call.get("params").get(0).asText().toLowerCase(Locale.ROOT);
+            ObjectNode result = results.addObject();
+            result.put("jsonrpc", "2.0");
+            result.set("id", call.get("id"));
+            result.put("result", "0x" + balances.getOrDefault(address, BigInteger.ZERO).toString(16));
+        }
+
+        // Answer in reverse order; the poller has to match responses by id
+        List<JsonNode> reversed = new ArrayList<>();
+        results.forEach(reversed::add);
+        Collections.reverse(reversed);
+        JsonNode response = body.isArray() ? mapper.createArrayNode().addAll(reversed) : reversed.get(0);
+
+        byte[] bytes = mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String address(int i) {
+        return String.format("0x%040x", i + 1);
+    }
+
+    private static List<Integer> sorted(List<Integer> sizes) {
+        List<Integer> copy = new ArrayList<>(sizes);
+        Collections.sort(copy);
+        return copy;
+    }
+}